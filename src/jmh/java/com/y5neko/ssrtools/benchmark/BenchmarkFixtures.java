@@ -0,0 +1,98 @@
+package com.y5neko.ssrtools.benchmark;
+
+import com.y5neko.ssrtools.models.docdata.ReportData;
+import com.y5neko.ssrtools.models.docdata.SystemInfo;
+import com.y5neko.ssrtools.models.docdata.Unit;
+import com.y5neko.ssrtools.models.docdata.Vulnerability;
+import com.y5neko.ssrtools.object.DocObj;
+import com.y5neko.ssrtools.utils.MiscUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static com.y5neko.ssrtools.config.GlobalConfig.DEFAULT_TEMPLATE_DIR;
+
+/**
+ * 基准测试数据构造
+ * 使用程序自带的默认样式和漏洞库生成合成报告数据
+ */
+final class BenchmarkFixtures {
+    /**
+     * 自带的默认样式名称
+     */
+    static final String TEMPLATE_NAME = "渗透测试报告模板";
+
+    /**
+     * 每个单位下的系统数
+     */
+    private static final int SYSTEMS_PER_UNIT = 5;
+
+    /**
+     * 每个系统下的最大漏洞数
+     */
+    private static final int VULNS_PER_SYSTEM = 10;
+
+    // 漏洞库中存在的名称与不存在的名称混合，覆盖自动补全和缺省两种情况
+    private static final String[] VULN_NAMES = {
+            "内网地址泄露",
+            "XSS漏洞",
+            "敏感信息泄露",
+            "目录浏览",
+            "自定义漏洞 <script>&amp;"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 默认样式目录的绝对路径
+     */
+    static String templatePath() {
+        return MiscUtils.getAbsolutePath(DEFAULT_TEMPLATE_DIR + File.separator + TEMPLATE_NAME);
+    }
+
+    /**
+     * 构建指定漏洞数量的报告数据
+     * @param vulnerabilities 漏洞总数
+     * @return 报告数据
+     */
+    static ReportData reportData(int vulnerabilities) throws FileNotFoundException {
+        ReportData reportData = new ReportData();
+        int created = 0;
+        for (int u = 0; created < vulnerabilities; u++) {
+            Unit unit = new Unit("测试单位" + u);
+            for (int s = 0; s < SYSTEMS_PER_UNIT && created < vulnerabilities; s++) {
+                SystemInfo systemInfo = new SystemInfo("业务系统" + u + "-" + s);
+                for (int v = 0; v < VULNS_PER_SYSTEM && created < vulnerabilities; v++, created++) {
+                    Vulnerability vulnerability = new Vulnerability(VULN_NAMES[created % VULN_NAMES.length]);
+                    vulnerability.setVulLinks("https://example.com/app/" + created + "?id=1&type=<test>");
+                    vulnerability.setVulDetail("请求包：\nGET /app/" + created + " HTTP/1.1\n响应包：\nHTTP/1.1 200 OK");
+                    systemInfo.getVulnerabilities().add(vulnerability);
+                }
+                unit.getSystems().add(systemInfo);
+            }
+            reportData.getUnits().add(unit);
+        }
+        return reportData;
+    }
+
+    /**
+     * 构建文档对象
+     * @return 文档对象
+     */
+    static DocObj docObj() {
+        DocObj docObj = new DocObj();
+        docObj.setCustomerName("基准测试客户");
+        docObj.setSignatureName("基准测试单位");
+        docObj.setReporter("测试人员");
+        docObj.setTesterName("测试人员");
+        docObj.setPmName("项目经理");
+        docObj.setTestTime("2025年1月1日-2025年1月7日");
+        docObj.setVulHighCount(1);
+        docObj.setVulMediumCount(2);
+        docObj.setVulLowCount(3);
+        docObj.setVulAllCount(6);
+        docObj.setTemplateName(TEMPLATE_NAME);
+        return docObj;
+    }
+}
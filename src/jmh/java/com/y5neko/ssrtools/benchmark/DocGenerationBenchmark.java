@@ -0,0 +1,96 @@
+package com.y5neko.ssrtools.benchmark;
+
+import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.models.docdata.ReportData;
+import com.y5neko.ssrtools.object.DocObj;
+import com.y5neko.ssrtools.utils.DocUtils;
+import com.y5neko.ssrtools.utils.MiscUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报告生成主流程基准测试
+ * 分别测量报告主体渲染、正文渲染、docx打包以及一次性流式生成，漏洞数量为 10 / 1000 / 10000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocGenerationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int vulnerabilities;
+
+    private ReportData reportData;
+    private DocObj docObj;
+    private String templatePath;
+    private String finalContent;
+
+    // 本轮迭代生成的报告文件，迭代结束后删除
+    private final List<String> generated = new CopyOnWriteArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MiscUtils.initDir(GlobalConfig.REQUIRED_DIRS);
+        reportData = BenchmarkFixtures.reportData(vulnerabilities);
+        docObj = BenchmarkFixtures.docObj();
+        templatePath = BenchmarkFixtures.templatePath();
+        finalContent = DocUtils.contentGen(docObj, templatePath)
+                .replace("{{{{{MainContent}}}}}", DocUtils.mainContentGen(reportData, docObj));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanGenerated() throws IOException {
+        for (String path : generated) {
+            Files.deleteIfExists(Paths.get(path));
+        }
+        generated.clear();
+    }
+
+    @Benchmark
+    public String contentGen() {
+        return DocUtils.contentGen(docObj, templatePath);
+    }
+
+    @Benchmark
+    public String mainContentGen() {
+        return DocUtils.mainContentGen(reportData, docObj);
+    }
+
+    @Benchmark
+    public String docGen() throws IOException {
+        String path = DocUtils.docGen(templatePath, finalContent, docObj);
+        generated.add(path);
+        return path;
+    }
+
+    /**
+     * 完整生成流程：报告主体与正文直接流式写入docx
+     */
+    @Benchmark
+    public String reportGen() throws IOException {
+        String path = DocUtils.reportGen(docObj, reportData, templatePath);
+        generated.add(path);
+        return path;
+    }
+}
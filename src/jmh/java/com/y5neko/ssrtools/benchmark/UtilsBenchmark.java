@@ -0,0 +1,100 @@
+package com.y5neko.ssrtools.benchmark;
+
+import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.utils.ComponentLoader;
+import com.y5neko.ssrtools.utils.FileUtils;
+import com.y5neko.ssrtools.utils.MiscUtils;
+import com.y5neko.ssrtools.utils.WordPlaceholderTest;
+import com.y5neko.ssrtools.utils.XmlEscapeUtils;
+import com.y5neko.ssrtools.utils.ZipUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报告生成相关工具方法基准测试
+ * 基于程序自带的默认样式，测量ZIP打包、组件加载、XML转义和占位符修复
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilsBenchmark {
+
+    // 与漏洞证明内容相近的待转义文本
+    private static final String ESCAPE_SAMPLE =
+            "GET /index.php?id=1' AND 1=1 -- &name=<script>alert(\"xss\")</script> HTTP/1.1\n" +
+            "Host: example.com\nCookie: session=abc&token=def\n\n" +
+            "该接口未对参数进行过滤，攻击者可构造恶意语句获取数据库中的敏感信息。";
+
+    private List<String> zipSources;
+    private Path zipOutput;
+    private String documentXml;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MiscUtils.initDir(GlobalConfig.REQUIRED_DIRS);
+
+        String templatePath = BenchmarkFixtures.templatePath();
+        zipSources = new ArrayList<>();
+        for (String part : new String[]{"_rels", "customXml", "docProps", "word", "[Content_Types].xml"}) {
+            zipSources.add(templatePath + File.separator + part);
+        }
+        zipOutput = Files.createTempFile("ssrtools-bench-", ".zip");
+        documentXml = FileUtils.readString(templatePath + File.separator + "word" + File.separator + "document.xml");
+
+        // fixPlaceholders 会逐个占位符输出调试信息，基准测试中丢弃控制台输出以免干扰结果
+        originalOut = System.out;
+        System.setOut(new PrintStream(NullOutputStream.INSTANCE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        Files.deleteIfExists(zipOutput);
+    }
+
+    @Benchmark
+    public Path zipMultiple() throws IOException {
+        ZipUtils.zipMultiple(zipSources, zipOutput.toString());
+        return zipOutput;
+    }
+
+    @Benchmark
+    public String loadComponent() throws IOException {
+        return ComponentLoader.loadComponent(BenchmarkFixtures.TEMPLATE_NAME, "normal_text.txt");
+    }
+
+    @Benchmark
+    public String escape() {
+        return XmlEscapeUtils.escape(ESCAPE_SAMPLE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String fixPlaceholders() {
+        return WordPlaceholderTest.fixPlaceholders(documentXml);
+    }
+}
@@ -0,0 +1,232 @@
+package com.y5neko.ssrtools;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.y5neko.ssrtools.config.CopyRight;
+import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.models.docdata.ReportData;
+import com.y5neko.ssrtools.object.DocObj;
+import com.y5neko.ssrtools.services.ReportService;
+import com.y5neko.ssrtools.utils.FileUtils;
+import com.y5neko.ssrtools.utils.LogUtils;
+import com.y5neko.ssrtools.utils.MiscUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量报告生成入口（无界面）
+ * 用法：java -cp SSReportTools.jar com.y5neko.ssrtools.BatchGenerator &lt;manifest.json&gt; [并发数]
+ * <p>
+ * 清单格式：
+ * <pre>
+ * {
+ *   "threads": 4,
+ *   "jobs": [
+ *     {"vulnTree": "config/vuln_tree.json", "customer": "测试公司", "style": "渗透测试报告模板"}
+ *   ]
+ * }
+ * </pre>
+ * vulnTree 为漏洞树JSON路径；customer 为 config/customer-templates 下的客户配置名称或JSON文件路径；
+ * style 为 user-styles 下的Word报告样式名称或样式目录路径。相对路径均基于程序所在目录解析。
+ */
+public class BatchGenerator {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("用法: java -cp SSReportTools.jar " + BatchGenerator.class.getName() + " <manifest.json> [并发数]");
+            System.exit(2);
+        }
+
+        CopyRight.showCopyright();
+        MiscUtils.initDir(GlobalConfig.REQUIRED_DIRS);
+
+        try {
+            JSONObject manifest = JSON.parseObject(readText(resolvePath(args[0])));
+            JSONArray jobsArray = manifest.getJSONArray("jobs");
+            if (jobsArray == null || jobsArray.isEmpty()) {
+                System.out.println("清单中没有任务: " + args[0]);
+                return;
+            }
+
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) :
+                    manifest.getIntValue("threads", Runtime.getRuntime().availableProcessors());
+
+            List<Job> jobs = new ArrayList<>();
+            for (int i = 0; i < jobsArray.size(); i++) {
+                jobs.add(Job.fromJson(i + 1, jobsArray.getJSONObject(i)));
+            }
+
+            int failed = run(jobs, threads);
+            System.exit(failed == 0 ? 0 : 1);
+        } catch (Exception e) {
+            LogUtils.error(BatchGenerator.class, "批量生成失败: " + e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 在有界线程池上并发执行全部任务，输出每个任务的耗时和结果
+     * @param jobs 任务列表
+     * @param threads 并发数
+     * @return 失败任务数
+     */
+    public static int run(List<Job> jobs, int threads) throws InterruptedException {
+        int poolSize = Math.max(1, Math.min(threads, jobs.size()));
+        System.out.println("开始批量生成报告，共 " + jobs.size() + " 个任务，并发数 " + poolSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("batch-report-" + thread.getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long batchStart = System.nanoTime();
+        AtomicInteger finished = new AtomicInteger();
+        List<Future<JobResult>> futures = new ArrayList<>();
+        for (Job job : jobs) {
+            futures.add(executor.submit(() -> {
+                JobResult result = job.execute();
+                System.out.println("[" + finished.incrementAndGet() + "/" + jobs.size() + "] " + result);
+                return result;
+            }));
+        }
+        executor.shutdown();
+
+        int failed = 0;
+        for (Future<JobResult> future : futures) {
+            try {
+                if (!future.get().isSuccess()) {
+                    failed++;
+                }
+            } catch (ExecutionException e) {
+                failed++;
+                LogUtils.error(BatchGenerator.class, "任务执行异常", e.getCause());
+            }
+        }
+
+        long elapsed = (System.nanoTime() - batchStart) / 1_000_000;
+        System.out.println("批量生成完成：成功 " + (jobs.size() - failed) + "，失败 " + failed + "，总耗时 " + elapsed + " ms");
+        return failed;
+    }
+
+    private static String resolvePath(String path) {
+        return new File(path).isAbsolute() ? path : MiscUtils.getAbsolutePath(path);
+    }
+
+    private static String readText(String path) throws IOException {
+        return FileUtils.readString(path);
+    }
+
+    /**
+     * 单个报告生成任务
+     */
+    public static class Job {
+        private final int index;
+        private final String vulnTreePath;
+        private final String customer;
+        private final String style;
+
+        public Job(int index, String vulnTreePath, String customer, String style) {
+            this.index = index;
+            this.vulnTreePath = vulnTreePath;
+            this.customer = customer;
+            this.style = style;
+        }
+
+        static Job fromJson(int index, JSONObject json) {
+            String vulnTree = json.getString("vulnTree");
+            return new Job(index,
+                    vulnTree != null ? vulnTree : GlobalConfig.VULN_TREE_PATH,
+                    json.getString("customer"),
+                    json.getString("style"));
+        }
+
+        /**
+         * 执行任务，异常不会向外抛出，统一记录到结果中
+         * @return 任务结果
+         */
+        JobResult execute() {
+            long start = System.nanoTime();
+            try {
+                if (customer == null || style == null) {
+                    throw new IllegalArgumentException("任务缺少 customer 或 style 字段");
+                }
+
+                String customerPath = customer.toLowerCase().endsWith(".json") ? resolvePath(customer) :
+                        MiscUtils.getAbsolutePath(GlobalConfig.COMPANY_TEMPLATE_DIR + File.separator + customer + ".json");
+                File styleDir = new File(style);
+                String templatePath = styleDir.isAbsolute() || style.contains("/") || style.contains(File.separator) ?
+                        style : GlobalConfig.USER_TEMPLATE_DIR + "/" + style;
+                String templateName = new File(templatePath).getName();
+
+                if (!new File(resolvePath(templatePath)).isDirectory()) {
+                    throw new IOException("Word报告样式不存在: " + templatePath);
+                }
+
+                DocObj docObj = ReportService.docObjFromProfile(JSON.parseObject(readText(customerPath)), templateName);
+                ReportData reportData = ReportService.buildReportData(readText(resolvePath(vulnTreePath)));
+                String reportPath = ReportService.generateReport(docObj, reportData, templatePath);
+
+                return new JobResult(this, reportPath, null, System.nanoTime() - start);
+            } catch (Exception e) {
+                LogUtils.error(BatchGenerator.class, "任务 #" + index + " 生成失败", e);
+                return new JobResult(this, null, e, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + customer + " / " + style + " / " + vulnTreePath;
+        }
+    }
+
+    /**
+     * 任务执行结果
+     */
+    public static class JobResult {
+        private final Job job;
+        private final String reportPath;
+        private final Exception error;
+        private final long elapsedNanos;
+
+        JobResult(Job job, String reportPath, Exception error, long elapsedNanos) {
+            this.job = job;
+            this.reportPath = reportPath;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public String getReportPath() {
+            return reportPath;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return job + (isSuccess() ?
+                    " 成功 (" + getElapsedMillis() + " ms): " + reportPath :
+                    " 失败 (" + getElapsedMillis() + " ms): " + error.getMessage());
+        }
+    }
+}
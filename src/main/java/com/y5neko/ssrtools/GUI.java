@@ -2,6 +2,7 @@ package com.y5neko.ssrtools;
 
 import com.y5neko.ssrtools.config.CopyRight;
 import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.utils.AsyncFileWriter;
 import com.y5neko.ssrtools.utils.MiscUtils;
 import javafx.application.Application;
 import javafx.scene.Scene;
@@ -37,6 +38,12 @@ public class GUI extends Application {
 //        ScenicView.show(scene);
     }
 
+    @Override
+    public void stop() {
+        // 退出前写完后台尚未落盘的保存
+        AsyncFileWriter.flush();
+    }
+
     // 方便其他类切换场景
     public static void setRoot(Scene scene) {
         primaryStage.setScene(scene);
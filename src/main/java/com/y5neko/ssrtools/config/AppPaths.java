@@ -0,0 +1,92 @@
+package com.y5neko.ssrtools.config;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+
+/**
+ * 程序目录
+ * 程序根目录只在启动时解析一次，GlobalConfig 中的各路径在此预先解析为绝对 Path，
+ * 常量名与 GlobalConfig 中的同名常量一一对应
+ * 根目录可通过 -Dssrtools.baseDir=目录 指定（无界面/服务端部署时使用），
+ * 未指定时为 jar 包所在目录，开发环境下为当前工作目录
+ */
+public class AppPaths {
+    /**
+     * 指定程序根目录的系统属性
+     */
+    public static final String BASE_DIR_PROPERTY = "ssrtools.baseDir";
+
+    /**
+     * 程序根目录
+     */
+    public static final Path BASE_DIR = resolveBaseDir();
+
+    // ==================== 配置文件路径 ====================
+    public static final Path CONFIG_DIR = resolve(GlobalConfig.CONFIG_DIR);
+    public static final Path COMPANY_TEMPLATE_DIR = resolve(GlobalConfig.COMPANY_TEMPLATE_DIR);
+    public static final Path VULN_TREE_PATH = resolve(GlobalConfig.VULN_TREE_PATH);
+    public static final Path VULN_WIKI_FILE_PATH = resolve(GlobalConfig.VULN_WIKI_FILE_PATH);
+    public static final Path VULN_LIBRARY_DIR = resolve(GlobalConfig.VULN_LIBRARY_DIR);
+
+    // ==================== 报告模板路径 ====================
+    public static final Path DEFAULT_TEMPLATE_DIR = resolve(GlobalConfig.DEFAULT_TEMPLATE_DIR);
+    public static final Path USER_TEMPLATE_DIR = resolve(GlobalConfig.USER_TEMPLATE_DIR);
+    public static final Path DOC_TEMPLATE_PATH = resolve(GlobalConfig.DOC_TEMPLATE_PATH);
+
+    // ==================== 组件路径 ====================
+    public static final Path DEFAULT_COMPONENTS_DIR = resolve(GlobalConfig.DEFAULT_COMPONENTS_DIR);
+    public static final Path USER_COMPONENTS_DIR = resolve(GlobalConfig.USER_COMPONENTS_DIR);
+
+    // ==================== AI配置路径 ====================
+    public static final Path AI_CONFIG_FILE = resolve(GlobalConfig.AI_CONFIG_FILE);
+
+    // ==================== 工作空间路径 ====================
+    public static final Path WORKSPACE_TEMP_DIR = resolve(GlobalConfig.WORKSPACE_TEMP_DIR);
+    public static final Path WORKSPACE_CACHE_DIR = resolve(GlobalConfig.WORKSPACE_CACHE_DIR);
+    public static final Path RENDER_CACHE_DIR = resolve(GlobalConfig.RENDER_CACHE_DIR);
+    public static final Path VULN_SNAPSHOT_DIR = resolve(GlobalConfig.VULN_SNAPSHOT_DIR);
+
+    // ==================== 输出路径 ====================
+    public static final Path DOC_OUTPUT_DIR = resolve(GlobalConfig.DOC_OUTPUT_DIR);
+
+    private AppPaths() {
+    }
+
+    /**
+     * 将相对于程序根目录的路径解析为绝对路径
+     * @param relativePath 相对路径（开头的 / 会被忽略）
+     * @return 绝对路径
+     */
+    public static Path resolve(String relativePath) {
+        if (relativePath.startsWith("/")) {
+            relativePath = relativePath.substring(1);
+        }
+        return BASE_DIR.resolve(relativePath);
+    }
+
+    private static Path resolveBaseDir() {
+        String configured = System.getProperty(BASE_DIR_PROPERTY);
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim()).toAbsolutePath().normalize();
+        }
+
+        // 使用本类所在的代码位置（与主程序同一jar），无需加载界面类
+        CodeSource codeSource = AppPaths.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            try {
+                File location = new File(codeSource.getLocation().toURI());
+                if (location.isFile()) {
+                    // 生产环境
+                    return location.getParentFile().toPath().toAbsolutePath();
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // 无法解析代码位置时按开发环境处理
+            }
+        }
+        // 开发环境
+        return Paths.get(System.getProperty("user.dir")).toAbsolutePath();
+    }
+}
@@ -28,6 +28,11 @@ public class GlobalConfig {
      */
     public static final String VULN_WIKI_FILE_PATH = CONFIG_DIR + File.separator + "VulnWiki.yml";
 
+    /**
+     * 附加漏洞库目录，其中的 .yml/.yaml 按文件名顺序叠加在漏洞知识库之上（后者优先）
+     */
+    public static final String VULN_LIBRARY_DIR = CONFIG_DIR + File.separator + "vuln-libraries";
+
     // ==================== 模板相关路径 ====================
     /**
      * 报告样式模板根目录，存放Word报告的样式模板
@@ -92,6 +97,16 @@ public class GlobalConfig {
      */
     public static final String WORKSPACE_CACHE_DIR = WORKSPACE_DIR + File.separator + "cache";
 
+    /**
+     * 报告正文渲染缓存目录，按漏洞数据与模板内容的哈希保存已渲染的正文
+     */
+    public static final String RENDER_CACHE_DIR = WORKSPACE_CACHE_DIR + File.separator + "render_cache";
+
+    /**
+     * 漏洞库快照目录，保存由YAML漏洞库编译出的二进制快照，源文件未变化时直接读取
+     */
+    public static final String VULN_SNAPSHOT_DIR = WORKSPACE_CACHE_DIR + File.separator + "vuln_snapshot";
+
     /**
      * 导出目录，存放待导出的文件和数据
      */
@@ -134,6 +149,50 @@ public class GlobalConfig {
      */
     public static final String NORMAL_TEXT_TEPMLATE_PATH = DOC_COMPONENTS_PATH + File.separator + "normal_text.txt";
 
+    // ==================== 生成参数 ====================
+    /**
+     * 并行渲染报告正文的漏洞数量阈值，漏洞总数达到该值时按系统拆分到 ForkJoin 线程池并行渲染，
+     * 可通过 -Dssrtools.parallelRenderThreshold=N 调整，设为0表示始终单线程渲染
+     */
+    public static final int PARALLEL_RENDER_THRESHOLD = Integer.getInteger("ssrtools.parallelRenderThreshold", 200);
+
+    /**
+     * 报告打包压缩级别：fast（最快）、default（默认）、small（最小体积），
+     * 可通过 -Dssrtools.zipCompression=fast 调整，图片等已压缩的媒体文件始终直接存储
+     */
+    public static final String ZIP_COMPRESSION_PROFILE = System.getProperty("ssrtools.zipCompression", "default");
+
+    /**
+     * 报告正文渲染缓存保留的最大条目数，超出时删除最久未使用的条目，
+     * 可通过 -Dssrtools.renderCacheEntries=N 调整，设为0表示不使用缓存
+     */
+    public static final int RENDER_CACHE_MAX_ENTRIES = Integer.getInteger("ssrtools.renderCacheEntries", 16);
+
+    /**
+     * 内存中缓存的已压缩模板骨架总大小上限（MB），超出时淘汰最久未使用的模板，
+     * 可通过 -Dssrtools.templateCacheMB=N 调整，设为0表示不缓存
+     */
+    public static final int TEMPLATE_CACHE_MAX_MB = Integer.getInteger("ssrtools.templateCacheMB", 64);
+
+    // ==================== 漏洞库参数 ====================
+    /**
+     * 优先级最高的附加漏洞库文件（如项目专用的覆盖条目），多个文件以路径分隔符分隔，
+     * 通过 -Dssrtools.vulnLibraries=文件1;文件2 指定（Linux/macOS 使用冒号），相对路径基于程序根目录
+     */
+    public static final String VULN_EXTRA_LIBRARIES = System.getProperty("ssrtools.vulnLibraries", "");
+
+    /**
+     * 漏洞名称自动补全最多显示的建议条数
+     */
+    public static final int VULN_SUGGESTION_LIMIT = Integer.getInteger("ssrtools.vulnSuggestionLimit", 20);
+
+    /**
+     * 漏洞名称自动补全是否支持拼音首字母匹配（如输入 sqlzr 匹配“SQL注入”），
+     * 可通过 -Dssrtools.pinyinSearch=false 关闭
+     */
+    public static final boolean VULN_PINYIN_SEARCH =
+            Boolean.parseBoolean(System.getProperty("ssrtools.pinyinSearch", "true"));
+
     // ==================== 兼容性路径（保持向后兼容） ====================
     /**
      * @deprecated 使用 {@link #USER_TEMPLATE_DIR} 替代
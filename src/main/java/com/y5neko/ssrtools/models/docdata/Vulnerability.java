@@ -8,8 +8,6 @@ import java.io.FileNotFoundException;
  * 漏洞模型
  */
 public class Vulnerability {
-    private VulnerabilityService vulnerabilityService = new VulnerabilityService();
-
     private String name = "测试漏洞";
     private String vulDesc = "漏洞库中不存在描述，请手动填写";
     private String riskLevel = "漏洞库中不存在等级，请手动填写";
@@ -26,7 +24,8 @@ public class Vulnerability {
      */
     public Vulnerability(String name) throws FileNotFoundException {
         this.name = name;
-        VulnerabilityService.Vulnerability vulnerability = vulnerabilityService.getVulnerability(name);
+        // 使用进程内共享的漏洞库，避免每个漏洞重复解析YAML
+        VulnerabilityService.Vulnerability vulnerability = VulnerabilityService.getInstance().getVulnerability(name);
         if (vulnerability != null) {
             this.vulDesc = vulnerability.getDescription();
             this.riskLevel = vulnerability.getRiskLevel();
@@ -37,14 +36,6 @@ public class Vulnerability {
 
     // ================================== getter & setter =============================================
 
-    public VulnerabilityService getVulnerabilityService() {
-        return vulnerabilityService;
-    }
-
-    public void setVulnerabilityService(VulnerabilityService vulnerabilityService) {
-        this.vulnerabilityService = vulnerabilityService;
-    }
-
     public String getIsFixed() {
         return isFixed;
     }
@@ -2,10 +2,10 @@ package com.y5neko.ssrtools.services;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
-import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.config.AppPaths;
 import com.y5neko.ssrtools.models.aiconfig.*;
+import com.y5neko.ssrtools.utils.AsyncFileWriter;
 import com.y5neko.ssrtools.utils.LogUtils;
-import com.y5neko.ssrtools.utils.MiscUtils;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -14,6 +14,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,8 +52,9 @@ public class AIService {
      * @throws AIServiceException 加载失败时抛出
      */
     public static List<AIEndpointConfig> loadEndpointConfigs() throws AIServiceException {
-        String configPath = MiscUtils.getAbsolutePath(GlobalConfig.AI_CONFIG_FILE);
-        File file = new File(configPath);
+        String configPath = AppPaths.AI_CONFIG_FILE.toString();
+        File file = AppPaths.AI_CONFIG_FILE.toFile();
+        AsyncFileWriter.flush(file.toPath());
 
         if (!file.exists()) {
             LogUtils.info(AIService.class, "AI配置文件不存在，返回空列表: " + configPath);
@@ -81,21 +83,15 @@ public class AIService {
      * @throws AIServiceException 保存失败时抛出
      */
     public static void saveEndpointConfigs(List<AIEndpointConfig> configs) throws AIServiceException {
-        String configPath = MiscUtils.getAbsolutePath(GlobalConfig.AI_CONFIG_FILE);
+        String configPath = AppPaths.AI_CONFIG_FILE.toString();
         try {
             JSONObject jsonObject = new JSONObject();
             jsonObject.put("endpoints", configs);
 
             String jsonStr = JSON.toJSONString(jsonObject, com.alibaba.fastjson2.JSONWriter.Feature.PrettyFormat);
 
-            // 确保目录存在
-            File file = new File(configPath);
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-            }
-
-            Files.write(file.toPath(), jsonStr.getBytes());
+            // 原子写入，同时取代配置窗口尚未写入的保存
+            AsyncFileWriter.write(AppPaths.AI_CONFIG_FILE, jsonStr.getBytes(StandardCharsets.UTF_8));
             LogUtils.info(AIService.class, "保存AI配置成功");
         } catch (IOException e) {
             LogUtils.error(AIService.class, "保存AI配置失败", e);
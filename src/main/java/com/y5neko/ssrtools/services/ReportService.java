@@ -0,0 +1,201 @@
+package com.y5neko.ssrtools.services;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.y5neko.ssrtools.models.docdata.ReportData;
+import com.y5neko.ssrtools.models.docdata.SystemInfo;
+import com.y5neko.ssrtools.models.docdata.Unit;
+import com.y5neko.ssrtools.models.docdata.Vulnerability;
+import com.y5neko.ssrtools.object.DocObj;
+import com.y5neko.ssrtools.utils.DocUtils;
+import com.y5neko.ssrtools.utils.LogUtils;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 报告生成服务类
+ * 与界面无关的报告生成流程，供主窗口和批量生成共用
+ */
+public class ReportService {
+
+    /**
+     * 根据漏洞树JSON构建报告数据，同名单位、系统会被合并
+     * @param vulnTreeJson 漏洞树JSON（vuln_tree.json 格式）
+     * @return 报告数据
+     */
+    public static ReportData buildReportData(String vulnTreeJson) {
+        JSONArray unitsArray = JSON.parseArray(vulnTreeJson);
+        ReportData reportData = new ReportData();
+        if (unitsArray == null) {
+            return reportData;
+        }
+
+        // 遍历单位
+        for (int i = 0; i < unitsArray.size(); i++) {
+            JSONObject unitObj = unitsArray.getJSONObject(i);
+            String unitName = unitObj.getString("unit");
+
+            // 查找或创建 Unit
+            Unit unit = null;
+            for (Unit u : reportData.getUnits()) {
+                if (u.getUnitName().equals(unitName)) {
+                    unit = u;
+                    break;
+                }
+            }
+            if (unit == null) {
+                unit = new Unit(unitName);
+                reportData.getUnits().add(unit);
+            }
+            // 遍历系统
+            JSONArray systemsArray = unitObj.getJSONArray("systems");
+            if (systemsArray == null) {
+                continue;
+            }
+            for (int j = 0; j < systemsArray.size(); j++) {
+                JSONObject systemObj = systemsArray.getJSONObject(j);
+                String systemName = systemObj.getString("system");
+
+                // 查找或创建 SystemInfo
+                SystemInfo system = null;
+                for (SystemInfo s : unit.getSystems()) {
+                    if (s.getSystemName().equals(systemName)) {
+                        system = s;
+                        break;
+                    }
+                }
+                if (system == null) {
+                    system = new SystemInfo(systemName);
+                    unit.getSystems().add(system);
+                }
+                // 遍历漏洞
+                JSONArray vulnsArray = systemObj.getJSONArray("vulns");
+                if (vulnsArray == null) {
+                    continue;
+                }
+                for (int k = 0; k < vulnsArray.size(); k++) {
+                    JSONObject vulnObj = vulnsArray.getJSONObject(k);
+                    String vulnName = vulnObj.getString("name");
+
+                    // 处理空漏洞描述，VulnerabilityService类有自动获取的逻辑
+                    try {
+                        Vulnerability vuln = new Vulnerability(vulnName);
+
+                        String desc = vulnObj.getString("desc");
+                        if (desc != null && !desc.trim().isEmpty()) {
+                            vuln.setVulDesc(desc);
+                        }
+
+                        String fix = vulnObj.getString("fix");
+                        if (fix != null && !fix.trim().isEmpty()) {
+                            vuln.setVulFixSuggestion(fix);
+                        }
+
+                        String harm = vulnObj.getString("harm");
+                        if (harm != null && !harm.trim().isEmpty()) {
+                            vuln.setVulHazards(harm);
+                        }
+
+                        String level = vulnObj.getString("level");
+                        if (level != null && !level.trim().isEmpty()) {
+                            vuln.setRiskLevel(level);
+                        }
+
+                        String repaired = vulnObj.getString("repaired");
+                        if (repaired != null && !repaired.trim().isEmpty()) {
+                            vuln.setIsFixed(repaired);
+                        }
+
+                        system.getVulnerabilities().add(vuln);
+                    } catch (FileNotFoundException ex) {
+                        LogUtils.error(ReportService.class, "加载漏洞库失败" + ex.getMessage());
+                    }
+                }
+            }
+        }
+        return reportData;
+    }
+
+    /**
+     * 根据客户配置模板（config/customer-templates 下的JSON）构建文档对象
+     * @param profile 客户配置
+     * @param templateName Word报告样式名称
+     * @return 文档对象
+     */
+    public static DocObj docObjFromProfile(JSONObject profile, String templateName) {
+        DocObj doc = new DocObj();
+
+        doc.setCustomerName(trimmed(profile, "clientName"));
+
+        // 初测还是复测
+        String isFirstTest = trimmed(profile, "isFirstTest");
+        if ("初测".equals(isFirstTest) || "复测".equals(isFirstTest)) {
+            doc.setIsFirsrTest(isFirstTest);
+        }
+
+        doc.setSignatureName(trimmed(profile, "contractorName"));
+
+        // 组合报告时间，格式 yyyy年M月d日
+        doc.setReportTime(trimmed(profile, "reportYear") + "年" +
+                trimmed(profile, "reportMonth") + "月" +
+                trimmed(profile, "reportDay") + "日");
+
+        doc.setReporter(trimmed(profile, "reportAuthor"));
+        doc.setTestTime(trimmed(profile, "testDate"));
+        doc.setTesterName(trimmed(profile, "tester"));
+        doc.setPmName(trimmed(profile, "manager"));
+
+        // 漏洞数量，总数与界面保持一致为三者之和
+        int high = parseIntOrZero(trimmed(profile, "highVuln"));
+        int mid = parseIntOrZero(trimmed(profile, "midVuln"));
+        int low = parseIntOrZero(trimmed(profile, "lowVuln"));
+        doc.setVulHighCount(high);
+        doc.setVulMediumCount(mid);
+        doc.setVulLowCount(low);
+        doc.setVulAllCount(high + mid + low);
+
+        doc.setTemplateName(templateName != null && !templateName.trim().isEmpty() ? templateName : "默认模板");
+        return doc;
+    }
+
+    /**
+     * 生成完整报告
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param templatePath Word报告样式目录
+     * @return 生成的报告路径
+     * @throws IOException 生成失败
+     */
+    public static String generateReport(DocObj docObj, ReportData reportData, String templatePath) throws IOException {
+        return DocUtils.reportGen(docObj, reportData, templatePath);
+    }
+
+    /**
+     * 生成完整报告并写入指定输出流（如HTTP响应、内存缓冲），不产生任何中间文件，输出流不会被关闭
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param templatePath Word报告样式目录
+     * @param out docx输出流
+     * @throws IOException 生成或写入失败
+     */
+    public static void generateReport(DocObj docObj, ReportData reportData, String templatePath, OutputStream out)
+            throws IOException {
+        DocUtils.reportGen(docObj, reportData, templatePath, out);
+    }
+
+    private static String trimmed(JSONObject json, String key) {
+        String value = json.getString(key);
+        return value == null ? "" : value.trim();
+    }
+
+    private static int parseIntOrZero(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.y5neko.ssrtools.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文本去重池
+ * 加载漏洞库期间使相同的文本（风险等级、通用修复建议等）共用同一个 String 实例，
+ * 加载结束后即可丢弃，不像 String.intern 那样常驻内存。可被并行加载的多层漏洞库共用。
+ */
+final class TextPool {
+    private final Map<String, String> pool = new ConcurrentHashMap<>();
+
+    /**
+     * 返回与 text 内容相同的共用实例
+     * @param text 文本，可为null
+     * @return 共用实例
+     */
+    String canonical(String text) {
+        if (text == null) {
+            return null;
+        }
+        String existing = pool.putIfAbsent(text, text);
+        return existing != null ? existing : text;
+    }
+
+    /**
+     * 池为null时原样返回，便于可选去重
+     */
+    static String canonical(TextPool pool, String text) {
+        return pool != null ? pool.canonical(text) : text;
+    }
+}
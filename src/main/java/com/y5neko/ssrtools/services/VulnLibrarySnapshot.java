@@ -0,0 +1,184 @@
+package com.y5neko.ssrtools.services;
+
+import com.y5neko.ssrtools.config.AppPaths;
+import com.y5neko.ssrtools.services.VulnerabilityService.Vulnerability;
+import com.y5neko.ssrtools.utils.LogUtils;
+import com.y5neko.ssrtools.utils.MiscUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 漏洞库二进制快照
+ * 将YAML漏洞库解析结果保存在 workspace/cache/vuln_snapshot 下，文件头记录源文件的大小、修改时间和SHA-256，
+ * 源文件未变化时直接读取快照，无需再次解析YAML
+ */
+final class VulnLibrarySnapshot {
+    private static final int MAGIC = 0x53535256; // "SSRV"
+    private static final int VERSION = 3;
+    private static final int HASH_LENGTH = 32;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private VulnLibrarySnapshot() {
+    }
+
+    /**
+     * 读取与源文件对应的快照
+     * @param source YAML源文件
+     * @param size 源文件大小
+     * @param lastModified 源文件修改时间
+     * @param hash 源文件SHA-256；为null时只比较大小与修改时间，否则比较大小与内容哈希
+     * @param pool 文本去重池
+     * @return 快照中的漏洞列表，快照不存在、已过期或损坏时返回null
+     */
+    static List<Vulnerability> read(File source, long size, long lastModified, byte[] hash, TextPool pool) {
+        Path file = snapshotFile(source);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long snapshotSize = in.readLong();
+            long snapshotModified = in.readLong();
+            byte[] snapshotHash = new byte[HASH_LENGTH];
+            in.readFully(snapshotHash);
+
+            boolean current = hash == null
+                    ? snapshotSize == size && snapshotModified == lastModified
+                    : snapshotSize == size && Arrays.equals(snapshotHash, hash);
+            if (!current) {
+                return null;
+            }
+
+            int count = in.readInt();
+            List<Vulnerability> vulnerabilities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                vulnerabilities.add(new Vulnerability(
+                        readString(in),
+                        readString(in),
+                        readString(in),
+                        readString(in),
+                        readString(in),
+                        pool
+                ));
+            }
+            return vulnerabilities;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LogUtils.warn(VulnLibrarySnapshot.class, "漏洞库快照已损坏，将重新生成：" + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 保存快照，先写临时文件再重命名；失败只记录日志，下次加载时重新解析YAML
+     * @param source YAML源文件
+     * @param size 源文件大小
+     * @param lastModified 源文件修改时间
+     * @param hash 源文件SHA-256
+     * @param vulnerabilities 解析出的漏洞列表
+     */
+    static void write(File source, long size, long lastModified, byte[] hash, List<Vulnerability> vulnerabilities) {
+        Path file = snapshotFile(source);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile = Files.createTempFile(file.getParent(), "." + file.getFileName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(size);
+                out.writeLong(lastModified);
+                out.write(hash);
+                out.writeInt(vulnerabilities.size());
+                for (Vulnerability vulnerability : vulnerabilities) {
+                    writeString(out, vulnerability.getName());
+                    writeString(out, vulnerability.getHarm());
+                    writeString(out, vulnerability.getDescription());
+                    writeString(out, vulnerability.getRiskLevel());
+                    writeString(out, vulnerability.getSuggustion());
+                }
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LogUtils.debug(VulnLibrarySnapshot.class, "已生成漏洞库快照: " + file);
+        } catch (IOException e) {
+            LogUtils.warn(VulnLibrarySnapshot.class, "保存漏洞库快照失败：" + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 计算源文件的SHA-256
+     * @param source 源文件
+     * @return 哈希值
+     * @throws IOException 读取失败
+     */
+    static byte[] hash(File source) throws IOException {
+        MessageDigest digest = MiscUtils.sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, length);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 快照文件路径，以源文件绝对路径的哈希命名，不同漏洞库互不覆盖
+     */
+    private static Path snapshotFile(File source) {
+        MessageDigest digest = MiscUtils.sha256();
+        MiscUtils.digestString(digest, source.getAbsolutePath());
+        String name = MiscUtils.toHex(digest.digest()).substring(0, 16);
+        return AppPaths.VULN_SNAPSHOT_DIR.resolve(name + ".bin");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,314 @@
+package com.y5neko.ssrtools.services;
+
+import com.y5neko.ssrtools.services.VulnerabilityService.Vulnerability;
+import com.y5neko.ssrtools.utils.LogUtils;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 漏洞库YAML流式读取器
+ * 基于SnakeYAML事件接口逐条解析漏洞，每解析完一条即交给调用方，不在内存中构建整份文档的 Map/List 树，
+ * 加载超大漏洞库时内存峰值接近最终索引大小。
+ * 支持 vulnerabilities: [...] 与顶层直接为列表两种格式，支持锚点、别名与合并键（<<），与 Yaml.load 的读取结果一致。
+ */
+public final class VulnYamlReader {
+    private static final String ROOT_KEY = "vulnerabilities";
+    private static final String MERGE_KEY = "<<";
+    private static final int FIELD_COUNT = 5;
+
+    private static final int NAME = 0;
+    private static final int HARM = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int RISK_LEVEL = 3;
+    private static final int SUGGUSTION = 4;
+
+    private final Parser parser;
+    private final Resolver resolver = new Resolver();
+    private final TextPool pool;
+    // 已定义的锚点：标量为 String（空值为 NULL_SCALAR），映射为 Fields，列表为 SEQUENCE
+    private final Map<String, Object> anchors = new HashMap<>();
+    private static final Object NULL_SCALAR = new Object();
+    private static final Object SEQUENCE = new Object();
+
+    private VulnYamlReader(InputStream in, TextPool pool) {
+        this.pool = pool;
+        LoaderOptions options = new LoaderOptions();
+        // 逐条处理不会累积整份文档，无需限制文档大小（默认3M字符）
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        this.parser = new ParserImpl(new StreamReader(new UnicodeReader(in)), options);
+    }
+
+    /**
+     * 逐条读取漏洞
+     * @param in YAML输入流（自动识别BOM，默认UTF-8），不会被关闭
+     * @param sink 接收每条漏洞
+     * @return 读取的漏洞条数
+     * @throws org.yaml.snakeyaml.error.YAMLException YAML格式错误
+     */
+    public static int read(InputStream in, Consumer<Vulnerability> sink) {
+        return read(in, null, sink);
+    }
+
+    /**
+     * 逐条读取漏洞，重复的文本经去重池共用同一实例
+     */
+    static int read(InputStream in, TextPool pool, Consumer<Vulnerability> sink) {
+        return new VulnYamlReader(in, pool).readDocument(sink);
+    }
+
+    private int readDocument(Consumer<Vulnerability> sink) {
+        parser.getEvent(); // StreamStart
+        if (parser.checkEvent(Event.ID.StreamEnd)) {
+            return 0;
+        }
+        parser.getEvent(); // DocumentStart
+
+        Event root = parser.getEvent();
+        if (root.is(Event.ID.SequenceStart)) {
+            return readEntries(sink);
+        }
+        if (!root.is(Event.ID.MappingStart)) {
+            skipNode(root);
+            return 0;
+        }
+
+        int count = 0;
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event key = parser.getEvent();
+            skipNode(key);
+            Event value = parser.getEvent();
+            if (isScalar(key, ROOT_KEY) && value.is(Event.ID.SequenceStart)) {
+                count += readEntries(sink);
+                registerSequence(value);
+            } else if (isScalar(key, ROOT_KEY) && value.is(Event.ID.Alias)) {
+                LogUtils.warn(VulnYamlReader.class, "不支持以别名引用整个漏洞列表，已忽略: " + value.getStartMark());
+            } else {
+                skipNode(value);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 读取漏洞列表，调用时列表的 SequenceStart 事件已被取出
+     */
+    private int readEntries(Consumer<Vulnerability> sink) {
+        int count = 0;
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            Event item = parser.getEvent();
+            Fields fields = null;
+            if (item.is(Event.ID.MappingStart)) {
+                fields = readMapping((NodeEvent) item);
+            } else if (item.is(Event.ID.Alias)) {
+                Object target = resolveAlias((AliasEvent) item);
+                fields = target instanceof Fields ? (Fields) target : null;
+            } else {
+                skipNode(item);
+            }
+            if (fields != null) {
+                sink.accept(fields.toVulnerability(pool));
+                count++;
+            }
+        }
+        parser.getEvent(); // SequenceEnd
+        return count;
+    }
+
+    /**
+     * 读取映射中的漏洞字段，调用时映射的 MappingStart 事件已被取出；映射带锚点时一并登记
+     */
+    private Fields readMapping(NodeEvent start) {
+        Fields fields = new Fields();
+        List<Fields> merged = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event key = parser.getEvent();
+            skipNode(key);
+            Event value = parser.getEvent();
+            if (key instanceof ScalarEvent && isPlain((ScalarEvent) key) && isScalar(key, MERGE_KEY)) {
+                readMergeSources(value, merged);
+                continue;
+            }
+            int field = key instanceof ScalarEvent ? fieldIndex(((ScalarEvent) key).getValue()) : -1;
+            if (field >= 0) {
+                // 重复的键以最后一次出现为准
+                fields.set(field, fieldValue(value));
+            }
+            skipNode(value);
+        }
+        parser.getEvent(); // MappingEnd
+
+        // 合并键：显式写出的字段优先，多个来源时靠前的优先
+        for (Fields source : merged) {
+            fields.inherit(source);
+        }
+        if (start.getAnchor() != null) {
+            anchors.put(start.getAnchor(), fields);
+        }
+        return fields;
+    }
+
+    /**
+     * 读取合并键的值：别名、映射或由二者组成的列表
+     */
+    private void readMergeSources(Event value, List<Fields> merged) {
+        if (value.is(Event.ID.SequenceStart)) {
+            while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+                readMergeSources(parser.getEvent(), merged);
+            }
+            parser.getEvent(); // SequenceEnd
+        } else if (value.is(Event.ID.MappingStart)) {
+            merged.add(readMapping((NodeEvent) value));
+        } else if (value.is(Event.ID.Alias) && resolveAlias((AliasEvent) value) instanceof Fields) {
+            merged.add((Fields) resolveAlias((AliasEvent) value));
+        } else {
+            throw new YAMLException("合并键 << 的值必须是映射或映射的别名: " + value.getStartMark());
+        }
+    }
+
+    /**
+     * 字段值：标量或指向标量的别名，其他类型视为null
+     */
+    private String fieldValue(Event value) {
+        if (value instanceof ScalarEvent) {
+            return scalarValue((ScalarEvent) value);
+        }
+        if (value.is(Event.ID.Alias)) {
+            Object target = resolveAlias((AliasEvent) value);
+            if (target instanceof String) {
+                return (String) target;
+            }
+            if (target != NULL_SCALAR) {
+                LogUtils.warn(VulnYamlReader.class, "漏洞字段引用了非文本的锚点，已忽略: " + value.getStartMark());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找别名指向的锚点，与 Yaml.load 一样不允许引用未定义的锚点
+     */
+    private Object resolveAlias(AliasEvent alias) {
+        Object target = anchors.get(alias.getAnchor());
+        if (target == null) {
+            throw new YAMLException("未定义的锚点 " + alias.getAnchor() + ": " + alias.getStartMark());
+        }
+        return target;
+    }
+
+    private static int fieldIndex(String key) {
+        switch (key) {
+            case "name":
+                return NAME;
+            case "harm":
+                return HARM;
+            case "description":
+                return DESCRIPTION;
+            case "risklevel":
+                return RISK_LEVEL;
+            case "suggustion":
+                return SUGGUSTION;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 标量的值；未加引号的空值（空、~、null）与 Yaml.load 一样视为null
+     */
+    private String scalarValue(ScalarEvent event) {
+        String value = event.getValue();
+        if (isPlain(event) && Tag.NULL.equals(resolver.resolve(NodeId.scalar, value, true))) {
+            return null;
+        }
+        return value;
+    }
+
+    private static boolean isPlain(ScalarEvent event) {
+        return event.getTag() == null && event.getImplicit().canOmitTagInPlainScalar();
+    }
+
+    private static boolean isScalar(Event event, String value) {
+        return event instanceof ScalarEvent && value.equals(((ScalarEvent) event).getValue());
+    }
+
+    /**
+     * 跳过以 start 开始的节点；标量与别名本身即完整节点。途经的锚点会被登记，供之后的别名引用
+     */
+    private void skipNode(Event start) {
+        if (start.is(Event.ID.MappingStart)) {
+            if (((NodeEvent) start).getAnchor() != null) {
+                readMapping((NodeEvent) start);
+                return;
+            }
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                skipNode(parser.getEvent());
+            }
+            parser.getEvent(); // MappingEnd
+        } else if (start.is(Event.ID.SequenceStart)) {
+            while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+                skipNode(parser.getEvent());
+            }
+            parser.getEvent(); // SequenceEnd
+            registerSequence(start);
+        } else if (start instanceof ScalarEvent && ((ScalarEvent) start).getAnchor() != null) {
+            String value = scalarValue((ScalarEvent) start);
+            anchors.put(((ScalarEvent) start).getAnchor(), value != null ? value : NULL_SCALAR);
+        }
+    }
+
+    /**
+     * 登记带锚点的列表；漏洞字段只接受文本，引用列表的别名按非文本处理
+     */
+    private void registerSequence(Event start) {
+        if (((NodeEvent) start).getAnchor() != null) {
+            anchors.put(((NodeEvent) start).getAnchor(), SEQUENCE);
+        }
+    }
+
+    /**
+     * 单条漏洞的字段值，记录哪些字段已显式写出
+     */
+    private static final class Fields {
+        final String[] values = new String[FIELD_COUNT];
+        final boolean[] present = new boolean[FIELD_COUNT];
+
+        void set(int field, String value) {
+            values[field] = value;
+            present[field] = true;
+        }
+
+        /**
+         * 补全未写出的字段
+         */
+        void inherit(Fields source) {
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if (!present[i] && source.present[i]) {
+                    set(i, source.values[i]);
+                }
+            }
+        }
+
+        Vulnerability toVulnerability(TextPool pool) {
+            return new Vulnerability(values[NAME], values[HARM], values[DESCRIPTION], values[RISK_LEVEL],
+                    values[SUGGUSTION], pool);
+        }
+    }
+}
@@ -1,51 +1,229 @@
 package com.y5neko.ssrtools.services;
 
+import com.y5neko.ssrtools.config.AppPaths;
 import com.y5neko.ssrtools.utils.LogUtils;
-import com.y5neko.ssrtools.utils.MiscUtils;
-import org.yaml.snakeyaml.Yaml;
+import com.y5neko.ssrtools.utils.VulnNameIndex;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import static com.y5neko.ssrtools.config.GlobalConfig.VULN_WIKI_FILE_PATH;
+import static com.y5neko.ssrtools.config.GlobalConfig.VULN_EXTRA_LIBRARIES;
+import static com.y5neko.ssrtools.config.GlobalConfig.VULN_PINYIN_SEARCH;
 
 /**
  * 漏洞服务类
+ * 进程内共享的漏洞知识库，首次使用时加载，之后在YAML文件变化时整体原子替换，
+ * 报告生成、漏洞录入自动补全和漏洞库编辑器共用同一份只读索引。
+ * 漏洞库可由多个文件分层组成，按优先级从低到高依次为：
+ * config/VulnWiki.yml、config/vuln-libraries 下的 .yml/.yaml（按文件名排序）、-Dssrtools.vulnLibraries 指定的文件。
+ * 各层并行加载后按漏洞名称合并：同名漏洞以优先级高的层为准，该层未填写的字段沿用低层的值；
+ * 条目顺序为名称首次出现的顺序。只有发生变化的层会被重新读取。
  */
 public class VulnerabilityService {
-    private final Map<String, Vulnerability> vulnerabilityMap = new HashMap<>();
+    private static volatile VulnerabilityService instance;
+
+    // 其中文件会被自动加入漏洞库的目录，目录变化（增删文件）时重新确定各层
+    private final File libraryDir = AppPaths.VULN_LIBRARY_DIR.toFile();
+    private volatile Snapshot snapshot;
+
+    private VulnerabilityService() {
+    }
 
     /**
-     * 从磁盘加载YAML文件初始化漏洞库
+     * 获取共享漏洞库实例，漏洞库文件有变化时自动重新加载
+     * @return 漏洞服务实例
+     * @throws FileNotFoundException 基础漏洞库文件不存在
      */
-    public VulnerabilityService() throws FileNotFoundException {
-        Yaml yaml = new Yaml();
-        File file = new File(MiscUtils.getAbsolutePath(VULN_WIKI_FILE_PATH));
+    public static VulnerabilityService getInstance() throws FileNotFoundException {
+        VulnerabilityService service = instance;
+        if (service == null) {
+            synchronized (VulnerabilityService.class) {
+                service = instance;
+                if (service == null) {
+                    service = new VulnerabilityService();
+                    service.load(false, null);
+                    instance = service;
+                    return service;
+                }
+            }
+        }
+        service.refreshIfChanged();
+        return service;
+    }
 
-        if (!file.exists()) {
-            throw new FileNotFoundException("漏洞库文件未找到: " + file.getAbsolutePath());
+    /**
+     * 按优先级从低到高排列的各层漏洞库文件，第一个为基础库
+     */
+    private static List<File> defaultSources() {
+        List<File> files = new ArrayList<>();
+        files.add(AppPaths.VULN_WIKI_FILE_PATH.toFile());
+
+        File[] libraries = AppPaths.VULN_LIBRARY_DIR.toFile().listFiles((dir, name) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".yml") || lower.endsWith(".yaml");
+        });
+        if (libraries != null) {
+            Arrays.sort(libraries, Comparator.comparing(File::getName));
+            files.addAll(Arrays.asList(libraries));
         }
 
-        try (FileInputStream inputStream = new FileInputStream(file)) {
-            Map<String, List<Map<String, String>>> data = yaml.load(inputStream);
-            List<Map<String, String>> vulnerabilities = data.get("vulnerabilities");
+        for (String path : VULN_EXTRA_LIBRARIES.split(File.pathSeparator)) {
+            if (!path.trim().isEmpty()) {
+                File file = new File(path.trim());
+                files.add(file.isAbsolute() ? file : AppPaths.resolve(path.trim()).toFile());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 任一层文件大小或修改时间变化、或漏洞库目录变化时重新加载
+     */
+    private void refreshIfChanged() throws FileNotFoundException {
+        if (isStale(snapshot)) {
+            synchronized (this) {
+                // 并发调用时可能已被其他线程重新加载
+                if (isStale(snapshot)) {
+                    load(false, null);
+                }
+            }
+        }
+    }
+
+    private boolean isStale(Snapshot current) {
+        if (current.libraryDirModified != libraryDir.lastModified()) {
+            return true;
+        }
+        for (Layer layer : current.layers) {
+            if (layer.isStale()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从磁盘重新加载全部漏洞库，加载完成后整体替换当前索引
+     * 源文件内容与二进制快照一致时直接读取快照，否则解析YAML并重新生成快照
+     * @throws FileNotFoundException 基础漏洞库文件不存在
+     */
+    public void reload() throws FileNotFoundException {
+        load(true, null);
+    }
+
+    /**
+     * 重新加载指定的一层漏洞库（如编辑器保存后），其余未变化的层不重新读取
+     * @param source 漏洞库文件
+     * @throws FileNotFoundException 基础漏洞库文件不存在
+     */
+    public void reload(File source) throws FileNotFoundException {
+        load(true, source.getAbsoluteFile());
+    }
 
-            for (Map<String, String> vuln : vulnerabilities) {
-                String name = vuln.get("name");
-                vulnerabilityMap.put(name, new Vulnerability(
-                        name,
-                        vuln.get("harm"),
-                        vuln.get("description"),
-                        vuln.get("risklevel"),
-                        vuln.get("suggustion")
-                ));
+    /**
+     * 加载漏洞库，需要读取的层并行加载，其余层沿用当前数据
+     * @param verifyContent 是否校验源文件内容哈希；为false时大小与修改时间均与快照一致即直接使用快照
+     * @param target 只强制重新读取该层；为null时按 verifyContent 处理全部层
+     */
+    private synchronized void load(boolean verifyContent, File target) throws FileNotFoundException {
+        long libraryDirModified = libraryDir.lastModified();
+        List<File> files = new ArrayList<>();
+        for (File file : defaultSources()) {
+            files.add(file.getAbsoluteFile());
+        }
+        if (!files.get(0).exists()) {
+            throw new FileNotFoundException("漏洞库文件未找到: " + files.get(0).getPath());
+        }
+
+        Snapshot current = snapshot;
+        Map<File, Layer> previous = new HashMap<>();
+        if (current != null) {
+            for (Layer layer : current.layers) {
+                previous.put(layer.file, layer);
             }
-        } catch (Exception e) {
-            LogUtils.error(VulnerabilityService.class, "加载漏洞库失败：" + e.getMessage());
         }
+
+        // 同一次加载的各层共用去重池，加载完成后丢弃
+        TextPool pool = new TextPool();
+        List<CompletableFuture<Layer>> pending = new ArrayList<>(files.size());
+        for (File file : files) {
+            Layer old = previous.get(file);
+            boolean forced = verifyContent && (target == null || target.equals(file));
+            if (old != null && !forced && !old.isStale()) {
+                pending.add(CompletableFuture.completedFuture(old));
+            } else {
+                pending.add(CompletableFuture.supplyAsync(() -> loadLayer(file, forced, old, pool)));
+            }
+        }
+        List<Layer> layers = new ArrayList<>(pending.size());
+        for (CompletableFuture<Layer> future : pending) {
+            layers.add(future.join());
+        }
+
+        Snapshot loaded = new Snapshot(layers, libraryDirModified);
+        snapshot = loaded;
+        LogUtils.info(VulnerabilityService.class, "漏洞库已加载，共 " + loaded.vulnerabilities.size()
+                + " 条（" + layers.size() + " 个库），约占用内存 " + (loaded.estimatedHeapBytes + 1023) / 1024 + " KB");
+    }
+
+    /**
+     * 加载一层漏洞库，失败时保留该层上一次成功加载的数据，不抛出异常
+     */
+    private static Layer loadLayer(File file, boolean verifyContent, Layer previous, TextPool pool) {
+        long lastModified = file.lastModified();
+        long size = file.length();
+        if (!file.exists()) {
+            LogUtils.warn(VulnerabilityService.class, "漏洞库文件不存在，已跳过：" + file.getPath());
+            return new Layer(file, lastModified, size, Collections.emptyList(), null);
+        }
+
+        String error = null;
+        List<Vulnerability> vulnerabilities = verifyContent
+                ? null : VulnLibrarySnapshot.read(file, size, lastModified, null, pool);
+        if (vulnerabilities == null) {
+            try {
+                byte[] hash = VulnLibrarySnapshot.hash(file);
+                vulnerabilities = VulnLibrarySnapshot.read(file, size, lastModified, hash, pool);
+                if (vulnerabilities == null) {
+                    vulnerabilities = parseYaml(file, pool);
+                    VulnLibrarySnapshot.write(file, size, lastModified, hash, vulnerabilities);
+                } else if (!verifyContent) {
+                    // 内容未变但修改时间变化（如文件被复制），更新快照头以便下次直接命中
+                    VulnLibrarySnapshot.write(file, size, lastModified, hash, vulnerabilities);
+                }
+            } catch (Exception e) {
+                LogUtils.error(VulnerabilityService.class, "加载漏洞库失败：" + file.getName() + " " + e.getMessage());
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+                // 保留上一次成功加载的数据，文件再次变化时重试
+                vulnerabilities = previous != null ? previous.vulnerabilities : Collections.emptyList();
+            }
+        }
+        LogUtils.debug(VulnerabilityService.class, "已加载漏洞库 " + file.getName() + "，共 " + vulnerabilities.size() + " 条");
+        return new Layer(file, lastModified, size, vulnerabilities, error);
+    }
+
+    /**
+     * 流式解析YAML漏洞库
+     */
+    private static List<Vulnerability> parseYaml(File file, TextPool pool) throws IOException {
+        List<Vulnerability> vulnerabilities = new ArrayList<>();
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            VulnYamlReader.read(inputStream, pool, vulnerabilities::add);
+        }
+        return vulnerabilities;
     }
 
     /**
@@ -54,40 +232,260 @@ public class VulnerabilityService {
      * @return 漏洞对象，不存在时返回null
      */
     public Vulnerability getVulnerability(String name) {
-        return vulnerabilityMap.get(name);
+        return snapshot.vulnerabilityMap.get(name);
     }
 
-  /**
-     * 获取漏洞映射表
+    /**
+     * 获取合并后的漏洞映射表（只读，按名称首次出现的顺序）
      * @return 漏洞名称到漏洞对象的映射
      */
     public Map<String, Vulnerability> getVulnerabilityMap() {
-        return vulnerabilityMap;
+        return snapshot.vulnerabilityMap;
+    }
+
+    /**
+     * 获取合并后的全部条目（只读，同名漏洞只保留合并结果）
+     * @return 漏洞列表
+     */
+    public List<Vulnerability> getVulnerabilities() {
+        return snapshot.vulnerabilities;
+    }
+
+    /**
+     * 获取某一层漏洞库文件中的原始条目（只读，保留原始顺序及重名条目），供编辑器编辑单个文件
+     * @param source 漏洞库文件
+     * @return 漏洞列表，该文件不属于当前漏洞库时返回空列表
+     */
+    public List<Vulnerability> getVulnerabilities(File source) {
+        File file = source.getAbsoluteFile();
+        for (Layer layer : snapshot.layers) {
+            if (layer.file.equals(file)) {
+                return layer.vulnerabilities;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 获取某一层漏洞库文件最近一次读取失败的原因
+     * @param source 漏洞库文件
+     * @return 失败原因，读取成功或该文件不属于当前漏洞库时返回null
+     */
+    public String getLoadError(File source) {
+        File file = source.getAbsoluteFile();
+        for (Layer layer : snapshot.layers) {
+            if (layer.file.equals(file)) {
+                return layer.error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 估算漏洞库数据占用的堆内存（各层原始条目、合并结果及名称映射表，不含名称检索索引），
+     * 共用的文本只计算一次，按64位JVM开启压缩指针时的对象布局估算
+     * @return 字节数
+     */
+    public long getEstimatedHeapBytes() {
+        return snapshot.estimatedHeapBytes;
+    }
+
+    /**
+     * 获取漏洞名称检索索引，每份快照首次使用时建立
+     * @return 名称索引
+     */
+    public VulnNameIndex getNameIndex() {
+        return snapshot.nameIndex();
+    }
+
+    /**
+     * 单层漏洞库，创建后不可变
+     */
+    private static class Layer {
+        private final File file;
+        private final long lastModified;
+        private final long size;
+        private final List<Vulnerability> vulnerabilities;
+        // 读取失败的原因，成功时为null；失败时 vulnerabilities 为上一次成功加载的数据或空列表
+        private final String error;
+
+        Layer(File file, long lastModified, long size, List<Vulnerability> vulnerabilities, String error) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.vulnerabilities = Collections.unmodifiableList(vulnerabilities);
+            this.error = error;
+        }
+
+        boolean isStale() {
+            return lastModified != file.lastModified() || size != file.length();
+        }
+    }
+
+    /**
+     * 漏洞库快照，由各层合并而成，创建后不可变
+     */
+    private static class Snapshot {
+        private final List<Layer> layers;
+        private final long libraryDirModified;
+        private final List<Vulnerability> vulnerabilities;
+        private final Map<String, Vulnerability> vulnerabilityMap;
+        private final long estimatedHeapBytes;
+        private volatile VulnNameIndex nameIndex;
+
+        Snapshot(List<Layer> layers, long libraryDirModified) {
+            Map<String, Vulnerability> map = new LinkedHashMap<>();
+            for (Layer layer : layers) {
+                // 同一层内的重名条目以最后一条为准，不同层之间逐字段覆盖
+                Map<String, Vulnerability> layerMap = new LinkedHashMap<>();
+                for (Vulnerability vulnerability : layer.vulnerabilities) {
+                    layerMap.put(vulnerability.getName(), vulnerability);
+                }
+                for (Vulnerability vulnerability : layerMap.values()) {
+                    Vulnerability lower = map.get(vulnerability.getName());
+                    map.put(vulnerability.getName(), lower == null ? vulnerability : merge(lower, vulnerability));
+                }
+            }
+            this.layers = Collections.unmodifiableList(layers);
+            this.libraryDirModified = libraryDirModified;
+            this.vulnerabilities = Collections.unmodifiableList(new ArrayList<>(map.values()));
+            this.vulnerabilityMap = Collections.unmodifiableMap(map);
+            this.estimatedHeapBytes = estimateHeapBytes(layers, vulnerabilities, map.size());
+        }
+
+        private static long estimateHeapBytes(List<Layer> layers, List<Vulnerability> merged, int mapSize) {
+            Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+            long bytes = 0;
+            for (Layer layer : layers) {
+                bytes += listBytes(layer.vulnerabilities.size());
+                for (Vulnerability vulnerability : layer.vulnerabilities) {
+                    bytes += entryBytes(vulnerability, counted);
+                }
+            }
+            bytes += listBytes(merged.size());
+            for (Vulnerability vulnerability : merged) {
+                bytes += entryBytes(vulnerability, counted);
+            }
+            // LinkedHashMap：每个条目40字节，哈希表容量为2的幂且负载因子0.75
+            int capacity = Integer.highestOneBit(Math.max(1, mapSize * 4 / 3)) << 1;
+            return bytes + 40L * mapSize + align(16 + 4L * capacity);
+        }
+
+        private static long entryBytes(Vulnerability vulnerability, Set<Object> counted) {
+            if (!counted.add(vulnerability)) {
+                return 0;
+            }
+            // 对象头12字节 + 6个引用
+            long bytes = align(12 + 6 * 4);
+            for (String text : new String[]{vulnerability.getName(), vulnerability.getHarm(),
+                    vulnerability.getDescription(), vulnerability.riskLevelText, vulnerability.getSuggustion()}) {
+                if (text != null && counted.add(text)) {
+                    // String 对象24字节 + char[]
+                    bytes += 24 + align(16 + 2L * text.length());
+                }
+            }
+            return bytes;
+        }
+
+        private static long listBytes(int size) {
+            return 24 + align(16 + 4L * size);
+        }
+
+        private static long align(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+
+        /**
+         * 高优先级条目覆盖低优先级条目，高优先级中为null的字段沿用低优先级的值
+         */
+        private static Vulnerability merge(Vulnerability lower, Vulnerability upper) {
+            return new Vulnerability(
+                    upper.getName(),
+                    upper.getHarm() != null ? upper.getHarm() : lower.getHarm(),
+                    upper.getDescription() != null ? upper.getDescription() : lower.getDescription(),
+                    upper.getRiskLevel() != null ? upper.getRiskLevel() : lower.getRiskLevel(),
+                    upper.getSuggustion() != null ? upper.getSuggustion() : lower.getSuggustion()
+            );
+        }
+
+        VulnNameIndex nameIndex() {
+            VulnNameIndex index = nameIndex;
+            if (index == null) {
+                // 并发首次使用时可能重复建立，结果相同，无需加锁
+                index = new VulnNameIndex(vulnerabilityMap.keySet(), VULN_PINYIN_SEARCH);
+                nameIndex = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 标准风险等级
+     */
+    private enum RiskLevel {
+        HIGH("高危"),
+        MEDIUM("中危"),
+        LOW("低危");
+
+        private final String label;
+
+        RiskLevel(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * 根据文本获取标准风险等级
+         * @param text 风险等级文本
+         * @return 风险等级，不是标准等级时返回null
+         */
+        public static RiskLevel fromLabel(String text) {
+            for (RiskLevel level : values()) {
+                if (level.label.equals(text)) {
+                    return level;
+                }
+            }
+            return null;
+        }
     }
 
     /**
      * 漏洞实体类
+     * 标准风险等级以枚举保存，其他等级文本原样保存
      */
     public static class Vulnerability {
-        private String name = "漏洞库中不存在";
-        private String harm = "漏洞库中不存在";
-        private String description = "漏洞库中不存在";
-        private String riskLevel = "漏洞库中不存在";
-        private String suggustion = "漏洞库中不存在";
+        private final String name;
+        private final String harm;
+        private final String description;
+        private final RiskLevel risk;
+        private final String riskLevelText;
+        private final String suggustion;
 
         public Vulnerability(String name, String harm, String description, String riskLevel, String suggustion) {
+            this(name, harm, description, riskLevel, suggustion, null);
+        }
+
+        /**
+         * 创建漏洞，文本经去重池共用相同实例
+         */
+        Vulnerability(String name, String harm, String description, String riskLevel, String suggustion,
+                      TextPool pool) {
             this.name = name;
-            this.harm = harm;
-            this.description = description;
-            this.riskLevel = riskLevel;
-            this.suggustion = suggustion;
+            this.harm = TextPool.canonical(pool, harm);
+            this.description = TextPool.canonical(pool, description);
+            this.risk = RiskLevel.fromLabel(riskLevel);
+            this.riskLevelText = risk == null ? TextPool.canonical(pool, riskLevel) : null;
+            this.suggustion = TextPool.canonical(pool, suggustion);
         }
 
         // Getters
         public String getName() { return name; }
         public String getHarm() { return harm; }
         public String getDescription() { return description; }
-        public String getRiskLevel() { return riskLevel; }
+        public String getRiskLevel() { return risk != null ? risk.getLabel() : riskLevelText; }
         public String getSuggustion() { return suggustion; }
     }
-}
\ No newline at end of file
+}
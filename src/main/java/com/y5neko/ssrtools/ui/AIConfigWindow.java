@@ -5,6 +5,7 @@ import com.alibaba.fastjson2.JSONObject;
 import com.y5neko.ssrtools.config.GlobalConfig;
 import com.y5neko.ssrtools.models.aiconfig.AIEndpointConfig;
 import com.y5neko.ssrtools.services.AIService;
+import com.y5neko.ssrtools.utils.AsyncFileWriter;
 import com.y5neko.ssrtools.utils.LogUtils;
 import com.y5neko.ssrtools.utils.MiscUtils;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -908,6 +909,7 @@ public class AIConfigWindow {
     private void loadDefaultConfig() {
         String configPath = MiscUtils.getAbsolutePath(GlobalConfig.AI_CONFIG_FILE);
         File file = new File(configPath);
+        AsyncFileWriter.flush(file.toPath());
 
         if (!file.exists()) {
             LogUtils.info(AIConfigWindow.class, "AI配置文件不存在，将使用默认配置: " + configPath);
@@ -936,27 +938,17 @@ public class AIConfigWindow {
 
     /**
      * 保存配置到文件
+     * 在UI线程生成内容快照，写盘在后台完成
      */
     private void saveConfigToFile() {
         String configPath = MiscUtils.getAbsolutePath(GlobalConfig.AI_CONFIG_FILE);
-        try {
-            JSONObject jsonObject = new JSONObject();
-            jsonObject.put("endpoints", masterData);
-
-            String jsonStr = JSON.toJSONString(jsonObject, com.alibaba.fastjson2.JSONWriter.Feature.PrettyFormat);
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("endpoints", masterData);
 
-            // 确保目录存在
-            File file = new File(configPath);
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-            }
+        String jsonStr = JSON.toJSONString(jsonObject, com.alibaba.fastjson2.JSONWriter.Feature.PrettyFormat);
 
-            Files.write(file.toPath(), jsonStr.getBytes());
-            LogUtils.info(AIConfigWindow.class, "保存AI配置成功");
-        } catch (IOException e) {
-            LogUtils.error(AIConfigWindow.class, "保存AI配置失败", e);
-        }
+        AsyncFileWriter.saveString(Paths.get(configPath), () -> jsonStr)
+                .thenRun(() -> LogUtils.info(AIConfigWindow.class, "保存AI配置成功"));
     }
 
     /**
@@ -1,18 +1,17 @@
 package com.y5neko.ssrtools.ui;
 
 import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONWriter;
 import com.y5neko.ssrtools.models.docdata.ReportData;
-import com.y5neko.ssrtools.models.docdata.SystemInfo;
-import com.y5neko.ssrtools.models.docdata.Unit;
-import com.y5neko.ssrtools.models.docdata.Vulnerability;
 import com.y5neko.ssrtools.object.DocObj;
-import com.y5neko.ssrtools.utils.DocUtils;
+import com.y5neko.ssrtools.services.ReportService;
+import com.y5neko.ssrtools.utils.AsyncFileWriter;
+import com.y5neko.ssrtools.utils.ComponentLoader;
 import com.y5neko.ssrtools.utils.FileUtils;
 import com.y5neko.ssrtools.utils.LogUtils;
 import com.y5neko.ssrtools.utils.MiscUtils;
+import com.y5neko.ssrtools.utils.ZipUtils;
 import com.y5neko.ssrtools.config.GlobalConfig;
 import javafx.beans.binding.Bindings;
 import javafx.application.Platform;
@@ -28,10 +27,10 @@ import javafx.scene.layout.*;
 
 import java.awt.*;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.Optional;
@@ -446,99 +445,15 @@ public class MainWindow {
 
             // ===================================生成报告原始内容=======================================
             DocObj docObj = getDocObjFromUI();
-            String docContent = DocUtils.contentGen(docObj, getCurrentTemplatePath());
-
-            // ===================================生成漏洞相关========================================
-            JSONArray unitsArray = JSON.parseArray(FileUtils.readFile(MiscUtils.getAbsolutePath(VULN_TREE_PATH)));
-            ReportData reportData = new ReportData();
-
-            // 遍历单位
-            for (int i = 0; i < unitsArray.size(); i++) {
-                JSONObject unitObj = unitsArray.getJSONObject(i);
-                String unitName = unitObj.getString("unit");
-
-                // 查找或创建 Unit
-                Unit unit = null;
-                for (Unit u : reportData.getUnits()) {
-                    if (u.getUnitName().equals(unitName)) {
-                        unit = u;
-                        break;
-                    }
-                }
-                if (unit == null) {
-                    unit = new Unit(unitName);
-                    reportData.getUnits().add(unit);
-                }
-                // 遍历系统
-                JSONArray systemsArray = unitObj.getJSONArray("systems");
-                if (systemsArray != null) {
-                    for (int j = 0; j < systemsArray.size(); j++) {
-                        JSONObject systemObj = systemsArray.getJSONObject(j);
-                        String systemName = systemObj.getString("system");
-
-                        // 查找或创建 SystemInfo
-                        SystemInfo system = null;
-                        for (SystemInfo s : unit.getSystems()) {
-                            if (s.getSystemName().equals(systemName)) {
-                                system = s;
-                                break;
-                            }
-                        }
-                        if (system == null) {
-                            system = new SystemInfo(systemName);
-                            unit.getSystems().add(system);
-                        }
-                        // 遍历漏洞
-                        JSONArray vulnsArray = systemObj.getJSONArray("vulns");
-                        if (vulnsArray != null) {
-                            for (int k = 0; k < vulnsArray.size(); k++) {
-                                JSONObject vulnObj = vulnsArray.getJSONObject(k);
-                                String vulnName = vulnObj.getString("name");
-
-                                // 处理空漏洞描述，VulnerabilityService类有自动获取的逻辑
-                                try {
-                                    Vulnerability vuln = new Vulnerability(vulnName);
-
-                                    String desc = vulnObj.getString("desc");
-                                    if (desc != null && !desc.trim().isEmpty()) {
-                                        vuln.setVulDesc(desc);
-                                    }
-
-                                    String fix = vulnObj.getString("fix");
-                                    if (fix != null && !fix.trim().isEmpty()) {
-                                        vuln.setVulFixSuggestion(fix);
-                                    }
-
-                                    String harm = vulnObj.getString("harm");
-                                    if (harm != null && !harm.trim().isEmpty()) {
-                                        vuln.setVulHazards(harm);
-                                    }
-
-                                    String level = vulnObj.getString("level");
-                                    if (level != null && !level.trim().isEmpty()) {
-                                        vuln.setRiskLevel(level);
-                                    }
-
-                                    String repaired = vulnObj.getString("repaired");
-                                    if (repaired != null && !repaired.trim().isEmpty()) {
-                                        vuln.setIsFixed(repaired);
-                                    }
-
-                                    system.getVulnerabilities().add(vuln);
-                                } catch (FileNotFoundException ex) {
-                                    LogUtils.error(MainWindow.class, "加载漏洞库失败" + ex.getMessage());
-                                }
-                            }
-                        }
-                    }
-                }
-            }
 
             // ===========================最终生成漏洞内容============================================
-            String mainContent = DocUtils.mainContentGen(reportData, docObj);
-            String finalContent = docContent.replace("{{{{{MainContent}}}}}", mainContent);
             try {
-                String reportFilePath = DocUtils.docGen(getCurrentTemplatePath(), finalContent, docObj);
+                // 生成漏洞相关
+                String vulnTreePath = MiscUtils.getAbsolutePath(VULN_TREE_PATH);
+                AsyncFileWriter.flush(Paths.get(vulnTreePath));
+                ReportData reportData = ReportService.buildReportData(FileUtils.readString(vulnTreePath));
+
+                String reportFilePath = ReportService.generateReport(docObj, reportData, getCurrentTemplatePath());
                 // 弹窗提示生成成功并显示路径，带打开按钮
                 Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
                 successAlert.setTitle("生成成功");
@@ -840,7 +755,6 @@ public class MainWindow {
                 return;
             }
             saveTemplate(name);
-            loadTemplateList(); // 刷新模板列表
         });
 
         // 删除按钮
@@ -858,6 +772,8 @@ public class MainWindow {
             confirm.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.OK) {
                     File file = new File(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), selected + ".json");
+                    // 先写完尚未落盘的保存，避免删除后又被写回
+                    AsyncFileWriter.flush(file.toPath());
                     if (file.exists() && file.delete()) {
                         showAlert("成功", "模板已删除！");
                         loadTemplateList();
@@ -969,17 +885,18 @@ public class MainWindow {
      * @param name 模板名
      */
     private void saveTemplate(String name) {
-        try {
-            // 获取当前界面数据对象
-            JSONObject currentData = getCurrentData();
-            String json = JSON.toJSONString(currentData, JSONWriter.Feature.PrettyFormat);
-            System.out.println(json);
-            Files.write(Paths.get(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), name + ".json"), json.getBytes(StandardCharsets.UTF_8));
-            showAlert("成功", "模板已保存！");
-        } catch (IOException ex) {
-            LogUtils.error(MainWindow.class, "保存模板失败" + ex.getMessage());
-            showAlert("错误", "保存模板失败: " + ex.getMessage());
-        }
+        // 获取当前界面数据对象，序列化与写盘在后台完成
+        JSONObject currentData = getCurrentData();
+        AsyncFileWriter.saveString(Paths.get(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), name + ".json"),
+                () -> JSON.toJSONString(currentData, JSONWriter.Feature.PrettyFormat))
+                .whenComplete((result, ex) -> Platform.runLater(() -> {
+                    if (ex != null) {
+                        showAlert("错误", "保存模板失败: " + AsyncFileWriter.unwrap(ex).getMessage());
+                        return;
+                    }
+                    loadTemplateList(); // 刷新模板列表
+                    showAlert("成功", "模板已保存！");
+                }));
     }
 
     /**
@@ -988,7 +905,9 @@ public class MainWindow {
      */
     private void loadTemplate(String name) {
         try {
-            String json = new String(Files.readAllBytes(Paths.get(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), name + ".json")), StandardCharsets.UTF_8);
+            Path file = Paths.get(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), name + ".json");
+            AsyncFileWriter.flush(file);
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
             Object data = JSON.parseObject(json, Object.class);
             setCurrentData(data); // 将数据填充到界面
         } catch (IOException ex) {
@@ -1217,6 +1136,7 @@ public class MainWindow {
 
                     // 1. 递归删除模板目录
                     deleteDirectory(templateDir);
+                    ZipUtils.invalidateTemplate(templateDir.toPath());
                     deletedFiles += countFiles(templateDir);
                     deletedItems.append("• 样式模板文件\n");
 
@@ -1229,6 +1149,7 @@ public class MainWindow {
                         deletedFiles += countFiles(componentDir);
                         deletedItems.append("• 标题组件文件\n");
                     }
+                    ComponentLoader.invalidate(selectedTemplate);
 
                     // 3. 查找并删除带时间戳后缀的组件目录
                     File userComponentsDir = new File(MiscUtils.getAbsolutePath(GlobalConfig.USER_COMPONENTS_DIR));
@@ -1423,6 +1344,8 @@ public class MainWindow {
         try {
             File oldFile = new File(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), oldName + ".json");
             File newFile = new File(MiscUtils.getAbsolutePath(COMPANY_TEMPLATE_DIR), newName + ".json");
+            AsyncFileWriter.flush(oldFile.toPath());
+            AsyncFileWriter.flush(newFile.toPath());
 
             if (oldFile.exists() && !newFile.exists()) {
                 return oldFile.renameTo(newFile);
@@ -1495,6 +1418,7 @@ public class MainWindow {
 
             if (oldComponentDir.exists() && !newComponentDir.exists()) {
                 if (oldComponentDir.renameTo(newComponentDir)) {
+                    ComponentLoader.invalidate(oldName);
                     LogUtils.info(MainWindow.class, "报告样式模板组件目录重命名成功: " + oldName + " -> " + newName);
                 }
             }
@@ -1,6 +1,7 @@
 package com.y5neko.ssrtools.ui;
 
 import com.y5neko.ssrtools.config.GlobalConfig;
+import com.y5neko.ssrtools.utils.ComponentLoader;
 import com.y5neko.ssrtools.utils.FileUtils;
 import com.y5neko.ssrtools.utils.LogUtils;
 import com.y5neko.ssrtools.utils.MiscUtils;
@@ -29,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import static com.y5neko.ssrtools.config.GlobalConfig.RENDER_CACHE_DIR;
+import static com.y5neko.ssrtools.config.GlobalConfig.VULN_SNAPSHOT_DIR;
 import static com.y5neko.ssrtools.config.GlobalConfig.WORKSPACE_CACHE_DIR;
 import static com.y5neko.ssrtools.config.GlobalConfig.USER_TEMPLATE_DIR;
 
@@ -227,7 +230,13 @@ public class ReportTemplateMakerWindow {
                 // 删除目录下的所有文件和子目录
                 File[] files = cacheDir.listFiles();
                 if (files != null) {
+                    File renderCacheDir = new File(MiscUtils.getAbsolutePath(RENDER_CACHE_DIR));
+                    File vulnSnapshotDir = new File(MiscUtils.getAbsolutePath(VULN_SNAPSHOT_DIR));
                     for (File file : files) {
+                        if (file.equals(renderCacheDir) || file.equals(vulnSnapshotDir)) {
+                            // 报告正文渲染缓存与漏洞库快照不属于模板制作缓存，保留
+                            continue;
+                        }
                         if (file.isDirectory()) {
                             // 递归删除子目录及其内容
                             deleteDirectoryRecursively(file);
@@ -479,7 +488,7 @@ public class ReportTemplateMakerWindow {
                 });
 
                 // 读取文件内容
-                String originalContent = FileUtils.readFile(documentXmlPath);
+                String originalContent = FileUtils.readString(documentXmlPath);
 
                 // 调用修复逻辑
                 String fixedContent = WordPlaceholderTest.fixPlaceholders(originalContent);
@@ -815,36 +824,28 @@ public class ReportTemplateMakerWindow {
 
     /**
      * 复制整个目录（排除预览docx文件）
+     * 并行复制，目标中内容相同的文件直接跳过，任一文件复制失败即中止保存，复制进度同步到状态栏
      */
     private void copyDirectory(File sourceDir, File targetDir) throws IOException {
-        if (sourceDir.isDirectory()) {
-            if (!targetDir.exists()) {
-                targetDir.mkdir();
-            }
-
-            String[] files = sourceDir.list();
-            if (files != null) {
-                for (String file : files) {
+        FileUtils.CopyOptions options = new FileUtils.CopyOptions()
+                .skipIdentical(true)
+                .stopOnError(true)
+                .filter(relative -> {
                     // 跳过预览docx文件（包含"_test_"的docx文件）
+                    String file = relative.getFileName().toString();
                     if (file.toLowerCase().endsWith(".docx") && file.contains("_test_")) {
                         Platform.runLater(() -> appendLog("跳过预览文件: " + file));
-                        continue;
+                        return false;
                     }
-
-                    File srcFile = new File(sourceDir, file);
-                    File destFile = new File(targetDir, file);
-
-                    if (srcFile.isDirectory()) {
-                        // 递归复制子目录
-                        copyDirectory(srcFile, destFile);
-                    } else {
-                        // 复制文件
-                        java.nio.file.Files.copy(srcFile.toPath(), destFile.toPath(),
-                                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                    return true;
+                })
+                .listener((done, total, file) -> {
+                    if (done == total || done % 50 == 0) {
+                        Platform.runLater(() -> updateStatus("正在保存模板元文件... (" + done + "/" + total + ")",
+                                0.8 + 0.2 * done / total));
                     }
-                }
-            }
-        }
+                });
+        FileUtils.copyFolder(sourceDir.getPath(), targetDir.getPath(), options);
     }
 
     /**
@@ -1044,6 +1045,9 @@ public class ReportTemplateMakerWindow {
                     }
                 }
 
+                // 组件文件已替换，丢弃旧的组件缓存
+                ComponentLoader.invalidate(new File(targetDir).getName());
+
                 Platform.runLater(() -> {
                     appendLog("[成功] 组件文件移动完成");
                     appendLog("  从: " + sourceDir);
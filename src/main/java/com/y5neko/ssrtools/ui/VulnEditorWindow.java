@@ -1,11 +1,17 @@
 package com.y5neko.ssrtools.ui;
 
+import com.y5neko.ssrtools.services.VulnYamlReader;
+import com.y5neko.ssrtools.services.VulnerabilityService;
 import com.y5neko.ssrtools.utils.LogUtils;
 import com.y5neko.ssrtools.utils.MiscUtils;
+import com.y5neko.ssrtools.utils.TextSearchIndex;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -16,6 +22,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.yaml.snakeyaml.DumperOptions;
@@ -25,6 +32,8 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.y5neko.ssrtools.config.GlobalConfig.VULN_WIKI_FILE_PATH;
 
@@ -32,11 +41,32 @@ import static com.y5neko.ssrtools.config.GlobalConfig.VULN_WIKI_FILE_PATH;
  * 漏洞库编辑器
  */
 public class VulnEditorWindow {
+    // 一次增删超过该条数（如加载整个漏洞库）时在后台重建索引，否则逐条更新
+    private static final int INCREMENTAL_INDEX_LIMIT = 100;
+
+    private static final ExecutorService INDEX_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ssrtools-vuln-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Stage stage;
 
     private TableView<Vulnerability> table;
+    private TableColumn<Vulnerability, String> matchCol;
     private final ObservableList<Vulnerability> masterData = FXCollections.observableArrayList();
     private final FilteredList<Vulnerability> filteredData = new FilteredList<>(masterData, p -> true);
+    // 检索时按相关度排序，未检索时保持原顺序
+    private final SortedList<Vulnerability> sortedData = new SortedList<>(filteredData);
+
+    // 全文检索索引，后台重建期间为null
+    private TextSearchIndex<Vulnerability> searchIndex = newSearchIndex();
+    private long indexGeneration;
+    // 索引重建期间增删改的条目，重建完成后补上
+    private final Set<Vulnerability> pendingIndexUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private String searchQuery = "";
+    // 表格内容是否来自成功读取的漏洞库；默认漏洞库读取失败时禁止覆盖保存，避免用空表格覆盖原文件
+    private boolean libraryLoaded;
 
     private TextField filterField;
     private TextField nameField;
@@ -59,6 +89,30 @@ public class VulnEditorWindow {
     public VulnEditorWindow() {
         initControls();
         stage = new Stage();
+
+        // 少量增删逐条更新索引，整体替换时在后台重建，不阻塞UI线程
+        masterData.addListener((ListChangeListener<Vulnerability>) change -> {
+            int changed = 0;
+            while (change.next()) {
+                changed += change.getRemovedSize() + change.getAddedSize();
+            }
+            if (changed > INCREMENTAL_INDEX_LIMIT) {
+                rebuildSearchIndex();
+            } else {
+                change.reset();
+                while (change.next()) {
+                    for (Vulnerability v : change.getRemoved()) {
+                        unindexVulnerability(v);
+                    }
+                    for (Vulnerability v : change.getAddedSubList()) {
+                        indexVulnerability(v);
+                    }
+                }
+            }
+            if (!searchQuery.isEmpty()) {
+                applySearch();
+            }
+        });
     }
 
     /**
@@ -80,7 +134,7 @@ public class VulnEditorWindow {
      */
     private void initControls() {
         filterField = new TextField();
-        filterField.setPromptText("根据漏洞名称过滤...");
+        filterField.setPromptText("搜索漏洞名称、描述、危害、修复建议...");
         filterField.setStyle("-fx-font-size: 14px; -fx-padding: 8px 12px; -fx-border-radius: 6px; -fx-border-color: #dfe6e9; -fx-border-width: 1px; -fx-background-radius: 6px; -fx-focus-color: transparent; -fx-faint-focus-color: transparent;");
 
         table = new TableView<>();
@@ -179,6 +233,7 @@ public class VulnEditorWindow {
         // 表格列配置 - 优化宽度分配
         TableColumn<Vulnerability, String> nameCol = new TableColumn<>("漏洞名称");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellFactory(col -> new HighlightCell());
         nameCol.setPrefWidth(180);
         nameCol.setMinWidth(150);
         nameCol.setMaxWidth(250);
@@ -195,28 +250,34 @@ public class VulnEditorWindow {
 
         TableColumn<Vulnerability, String> harmCol = new TableColumn<>("漏洞危害");
         harmCol.setCellValueFactory(cell -> {
-            String v = cell.getValue().getHarm();
-            if (v == null) v = "";
-            // 将多行文本转换为单行显示，替换换行符为空格
-            String singleLine = v.replace("\n", " ").replace("\r", " ").trim();
-            // 清理多余空格
-            singleLine = singleLine.replaceAll("\\s+", " ");
+            String singleLine = singleLine(cell.getValue().getHarm());
             // 增加显示长度限制，因为现在有更多空间
             String preview = singleLine.length() > 80 ? singleLine.substring(0, 77) + "..." : singleLine;
             return new SimpleStringProperty(preview);
         });
+        harmCol.setCellFactory(col -> new HighlightCell());
         harmCol.setPrefWidth(350);
         harmCol.setMinWidth(300);
         harmCol.setStyle("-fx-font-size: 14px; -fx-font-weight: 600;");
         harmCol.setResizable(true);
 
-        table.getColumns().setAll(nameCol, riskCol, harmCol);
+        // 检索时显示名称以外字段中的命中片段
+        matchCol = new TableColumn<>("匹配内容");
+        matchCol.setCellValueFactory(cell -> new SimpleStringProperty(matchSnippet(cell.getValue())));
+        matchCol.setCellFactory(col -> new HighlightCell());
+        matchCol.setPrefWidth(300);
+        matchCol.setMinWidth(200);
+        matchCol.setStyle("-fx-font-size: 14px; -fx-font-weight: 600;");
+        matchCol.setResizable(true);
+        matchCol.setVisible(false);
+
+        table.getColumns().setAll(nameCol, riskCol, harmCol, matchCol);
         table.setStyle("-fx-background-color: white; -fx-border-color: #dfe6e9; -fx-border-radius: 8px; -fx-focus-color: transparent; -fx-faint-focus-color: transparent;");
         // 使用智能调整策略，允许列拖动调整大小
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-        // 用过滤列表绑定表格
-        table.setItems(filteredData);
+        // 用过滤、排序后的列表绑定表格
+        table.setItems(sortedData);
 
         // 创建搜索区域
         Label searchLabel = new Label("搜索漏洞");
@@ -322,13 +383,10 @@ public class VulnEditorWindow {
             if (e.getCode() == KeyCode.ENTER) loadSelectedToForm();
         });
 
-        // 过滤输入框监听
+        // 检索输入框监听
         filterField.textProperty().addListener((obs, oldVal, newVal) -> {
-            String filter = newVal == null ? "" : newVal.trim().toLowerCase();
-            filteredData.setPredicate(vuln -> {
-                if (filter.isEmpty()) return true;
-                return vuln.getName().toLowerCase().contains(filter);
-            });
+            searchQuery = newVal == null ? "" : newVal.trim();
+            applySearch();
         });
 
         // 按钮事件
@@ -344,6 +402,149 @@ public class VulnEditorWindow {
         btnAIGenerate.setOnAction(e -> onAIGenerate());
     }
 
+    /**
+     * 按当前检索内容过滤并按相关度排序
+     */
+    private void applySearch() {
+        if (searchQuery.isEmpty()) {
+            filteredData.setPredicate(null);
+            sortedData.setComparator(null);
+            matchCol.setVisible(false);
+            table.setPlaceholder(new Label("暂无漏洞"));
+        } else if (searchIndex == null) {
+            // 索引建立完成后会再次检索
+            filteredData.setPredicate(v -> false);
+            sortedData.setComparator(null);
+            matchCol.setVisible(true);
+            table.setPlaceholder(new Label("正在建立搜索索引..."));
+        } else {
+            Map<Vulnerability, Integer> rank = new IdentityHashMap<>();
+            for (Vulnerability v : searchIndex.search(searchQuery)) {
+                rank.put(v, rank.size());
+            }
+            filteredData.setPredicate(rank::containsKey);
+            sortedData.setComparator(Comparator.comparingInt(rank::get));
+            matchCol.setVisible(true);
+            table.setPlaceholder(new Label("无匹配的漏洞"));
+        }
+        // 重新绘制高亮
+        table.refresh();
+    }
+
+    /**
+     * 更新漏洞的索引
+     * @param v 漏洞
+     */
+    private void indexVulnerability(Vulnerability v) {
+        if (searchIndex == null) {
+            pendingIndexUpdates.add(v);
+        } else {
+            searchIndex.put(v, indexFields(v));
+        }
+    }
+
+    /**
+     * 从索引中删除漏洞
+     * @param v 漏洞
+     */
+    private void unindexVulnerability(Vulnerability v) {
+        if (searchIndex == null) {
+            pendingIndexUpdates.add(v);
+        } else {
+            searchIndex.remove(v);
+        }
+    }
+
+    /**
+     * 在后台重建索引，完成后在UI线程中替换
+     * 字段在UI线程中取出，后台线程不读取可能正被编辑的漏洞对象
+     */
+    private void rebuildSearchIndex() {
+        long generation = ++indexGeneration;
+        searchIndex = null;
+        pendingIndexUpdates.clear();
+
+        List<Vulnerability> items = new ArrayList<>(masterData);
+        List<String[]> fields = new ArrayList<>(items.size());
+        for (Vulnerability v : items) {
+            fields.add(indexFields(v));
+        }
+
+        INDEX_EXECUTOR.execute(() -> {
+            TextSearchIndex<Vulnerability> index = newSearchIndex();
+            try {
+                for (int i = 0; i < items.size(); i++) {
+                    index.put(items.get(i), fields.get(i));
+                }
+            } catch (RuntimeException e) {
+                LogUtils.error(VulnEditorWindow.class, "建立搜索索引失败" + e.getMessage());
+            }
+            Platform.runLater(() -> {
+                if (generation != indexGeneration) {
+                    // 已有更新的重建任务
+                    return;
+                }
+                for (Vulnerability v : pendingIndexUpdates) {
+                    if (masterData.contains(v)) {
+                        index.put(v, indexFields(v));
+                    } else {
+                        index.remove(v);
+                    }
+                }
+                pendingIndexUpdates.clear();
+                searchIndex = index;
+                if (!searchQuery.isEmpty()) {
+                    applySearch();
+                }
+            });
+        });
+    }
+
+    /**
+     * 全文检索索引，字段依次为名称、描述、危害、修复建议
+     */
+    private static TextSearchIndex<Vulnerability> newSearchIndex() {
+        return new TextSearchIndex<>(8, 2, 2, 1);
+    }
+
+    private static String[] indexFields(Vulnerability v) {
+        return new String[]{v.getName(), v.getDescription(), v.getHarm(), v.getSuggustion()};
+    }
+
+    /**
+     * 命中片段：依次在描述、危害、修复建议中查找第一处命中，截取其前后的文本
+     * @param v 漏洞
+     * @return 片段，未检索或只有名称命中时为空
+     */
+    private String matchSnippet(Vulnerability v) {
+        if (searchQuery.isEmpty()) {
+            return "";
+        }
+        String[][] fields = {
+                {"描述", v.getDescription()},
+                {"危害", v.getHarm()},
+                {"建议", v.getSuggustion()}
+        };
+        for (String[] field : fields) {
+            String text = singleLine(field[1]);
+            List<int[]> ranges = TextSearchIndex.highlightRanges(text, searchQuery);
+            if (!ranges.isEmpty()) {
+                int start = Math.max(0, ranges.get(0)[0] - 20);
+                int end = Math.min(text.length(), start + 60);
+                return field[0] + "：" + (start > 0 ? "..." : "") + text.substring(start, end)
+                        + (end < text.length() ? "..." : "");
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 将多行文本转换为单行显示，替换换行符并清理多余空格
+     */
+    private static String singleLine(String text) {
+        return text == null ? "" : text.replaceAll("\\s+", " ").trim();
+    }
+
     /**
      * AI辅助生成按钮点击事件
      */
@@ -380,7 +581,25 @@ public class VulnEditorWindow {
             System.out.println("默认漏洞库文件不存在：" + MiscUtils.getAbsolutePath(VULN_WIKI_FILE_PATH));
             return;
         }
-        loadYaml(file);
+
+        // 默认漏洞库直接复用共享索引，无需再次解析YAML；只编辑基础库文件本身，不含叠加的附加漏洞库
+        try {
+            VulnerabilityService service = VulnerabilityService.getInstance();
+            String error = service.getLoadError(file);
+            if (error != null) {
+                // 共享索引中该层为空或为上一次的旧数据，不能作为编辑内容
+                throw new IOException(error);
+            }
+            List<Vulnerability> loaded = new ArrayList<>();
+            for (VulnerabilityService.Vulnerability v : service.getVulnerabilities(file)) {
+                loaded.add(Vulnerability.fromEntry(v));
+            }
+            masterData.setAll(loaded);
+            libraryLoaded = true;
+        } catch (Exception ex) {
+            showAlert(Alert.AlertType.ERROR, "加载失败", ex.getMessage());
+            LogUtils.error(VulnEditorWindow.class, "加载失败" + ex.getMessage());
+        }
     }
 
     /**
@@ -389,26 +608,11 @@ public class VulnEditorWindow {
      */
     private void loadYaml(File file) {
         try (InputStream is = Files.newInputStream(file.toPath())) {
-            Yaml yaml = new Yaml();
-            Object obj = yaml.load(is);
-            masterData.clear();
-            if (obj instanceof Map) {
-                Map<?, ?> map = (Map<?, ?>) obj;
-                Object vs = map.get("vulnerabilities");
-                if (vs instanceof List) {
-                    for (Object item : (List<?>) vs) {
-                        if (item instanceof Map) {
-                            masterData.add(Vulnerability.fromMap((Map<?, ?>) item));
-                        }
-                    }
-                }
-            } else if (obj instanceof List) {
-                for (Object item : (List<?>) obj) {
-                    if (item instanceof Map) {
-                        masterData.add(Vulnerability.fromMap((Map<?, ?>) item));
-                    }
-                }
-            }
+            // 逐条读取，解析完成后一次性替换表格数据
+            List<Vulnerability> loaded = new ArrayList<>();
+            VulnYamlReader.read(is, entry -> loaded.add(Vulnerability.fromEntry(entry)));
+            masterData.setAll(loaded);
+            libraryLoaded = true;
         } catch (Exception ex) {
             showAlert(Alert.AlertType.ERROR, "加载失败", ex.getMessage());
             LogUtils.error(VulnEditorWindow.class, "加载失败" + ex.getMessage());
@@ -464,7 +668,18 @@ public class VulnEditorWindow {
             showAlert(Alert.AlertType.ERROR, "错误", "默认漏洞库文件不存在：" + MiscUtils.getAbsolutePath(VULN_WIKI_FILE_PATH));
             return;
         }
+        if (!libraryLoaded) {
+            showAlert(Alert.AlertType.ERROR, "错误", "漏洞库未能成功加载，为避免覆盖原有内容，已取消保存");
+            return;
+        }
         saveYaml(file);
+
+        // 立即刷新共享漏洞库，避免文件时间戳精度不足时读到旧数据
+        try {
+            VulnerabilityService.getInstance().reload(file);
+        } catch (FileNotFoundException ex) {
+            LogUtils.error(VulnEditorWindow.class, "刷新漏洞库失败" + ex.getMessage());
+        }
     }
 
     /**
@@ -541,7 +756,14 @@ public class VulnEditorWindow {
             selected.setRisklevel(riskField.getText());
             selected.setDescription(descArea.getText());
             selected.setSuggustion(suggestArea.getText());
-            table.refresh();
+            // 修改字段后单独更新该条索引，检索中时重新排序并保持选中
+            indexVulnerability(selected);
+            if (searchQuery.isEmpty()) {
+                table.refresh();
+            } else {
+                applySearch();
+                table.getSelectionModel().select(selected);
+            }
         }
     }
 
@@ -569,6 +791,43 @@ public class VulnEditorWindow {
         alert.showAndWait();
     }
 
+    /**
+     * 高亮检索关键词的单元格
+     */
+    private class HighlightCell extends TableCell<Vulnerability, String> {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+            List<int[]> ranges = empty || item == null
+                    ? Collections.<int[]>emptyList()
+                    : TextSearchIndex.highlightRanges(item, searchQuery);
+            if (ranges.isEmpty()) {
+                setGraphic(null);
+                setText(empty ? null : item);
+                return;
+            }
+
+            // 单行显示，超出列宽的部分由单元格裁剪
+            HBox line = new HBox();
+            line.setAlignment(Pos.CENTER_LEFT);
+            int pos = 0;
+            for (int[] range : ranges) {
+                if (range[0] > pos) {
+                    line.getChildren().add(new Text(item.substring(pos, range[0])));
+                }
+                Text hit = new Text(item.substring(range[0], range[1]));
+                hit.setStyle("-fx-fill: #e17055; -fx-font-weight: 700;");
+                line.getChildren().add(hit);
+                pos = range[1];
+            }
+            if (pos < item.length()) {
+                line.getChildren().add(new Text(item.substring(pos)));
+            }
+            setText(null);
+            setGraphic(line);
+        }
+    }
+
     /**
      * 漏洞模型
      */
@@ -621,26 +880,17 @@ public class VulnEditorWindow {
         }
 
         /**
-         * 从Map创建漏洞
-         * @param rawMap Map
+         * 从共享漏洞库条目创建漏洞
+         * @param entry 漏洞库条目
          * @return 漏洞
          */
-        @SuppressWarnings("unchecked")
-        public static Vulnerability fromMap(Map<?, ?> rawMap) {
-            Map<Object, Object> m = (Map<Object, Object>) rawMap;
-
-            Object n = m.getOrDefault("name", "");
-            Object h = m.getOrDefault("harm", "");
-            Object d = m.getOrDefault("description", "");
-            Object r = m.getOrDefault("risklevel", "");
-            Object s = m.getOrDefault("suggustion", "");
-
+        public static Vulnerability fromEntry(VulnerabilityService.Vulnerability entry) {
             return new Vulnerability(
-                    n == null ? "" : n.toString(),
-                    h == null ? "" : h.toString(),
-                    d == null ? "" : d.toString(),
-                    r == null ? "" : r.toString(),
-                    s == null ? "" : s.toString()
+                    entry.getName() == null ? "" : entry.getName(),
+                    entry.getHarm() == null ? "" : entry.getHarm(),
+                    entry.getDescription() == null ? "" : entry.getDescription(),
+                    entry.getRiskLevel() == null ? "" : entry.getRiskLevel(),
+                    entry.getSuggustion() == null ? "" : entry.getSuggustion()
             );
         }
     }
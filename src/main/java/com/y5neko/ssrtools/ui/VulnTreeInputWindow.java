@@ -5,8 +5,11 @@ import com.y5neko.ssrtools.models.vulntree.SystemEntry;
 import com.y5neko.ssrtools.models.vulntree.UnitEntry;
 import com.y5neko.ssrtools.models.vulntree.Vuln;
 import com.y5neko.ssrtools.services.VulnerabilityService;
+import com.y5neko.ssrtools.utils.AsyncFileWriter;
 import com.y5neko.ssrtools.utils.LogUtils;
 import com.y5neko.ssrtools.utils.MiscUtils;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
@@ -28,14 +31,27 @@ import java.util.function.Consumer;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static com.y5neko.ssrtools.config.GlobalConfig.VULN_SUGGESTION_LIMIT;
 import static com.y5neko.ssrtools.config.GlobalConfig.VULN_TREE_PATH;
 
 /**
  * 漏洞录入窗口
  */
 public class VulnTreeInputWindow {
+    // 漏洞名称自动补全：输入停顿多久后检索（毫秒）
+    private static final long SUGGESTION_DELAY_MS = 150;
+
+    // 漏洞名称检索线程，所有录入窗口共用
+    private static final ExecutorService SUGGESTION_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ssrtools-vuln-suggestion");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final List<UnitEntry> unitEntries = new ArrayList<>();
     private final File saveFile = new File(MiscUtils.getAbsolutePath(VULN_TREE_PATH));
@@ -48,12 +64,14 @@ public class VulnTreeInputWindow {
     public void show() {
         // 初始化漏洞服务
         try {
-            vulnerabilityService = new VulnerabilityService();
+            vulnerabilityService = VulnerabilityService.getInstance();
         } catch (FileNotFoundException e) {
             LogUtils.error(VulnTreeInputWindow.class, "漏洞库文件未找到：" + e.getMessage());
             showAlert(Alert.AlertType.ERROR, "初始化错误", "漏洞库文件未找到，请检查配置");
             return;
         }
+        // 提前在后台建立名称索引，首次输入时无需等待
+        SUGGESTION_EXECUTOR.execute(vulnerabilityService::getNameIndex);
 
         Stage stage = new Stage();
         stage.setTitle("漏洞录入");
@@ -172,8 +190,14 @@ public class VulnTreeInputWindow {
                     LogUtils.info(VulnTreeInputWindow.class, "保存的修复建议内容（行数：" + lineCount + "）：" + fixText.replace("\n", "[换行]"));
                 }
 
-                saveData();
-                showAlert(Alert.AlertType.INFORMATION, "保存成功", "数据已成功保存");
+                // 写入完成后再提示结果
+                saveData().whenComplete((result, ex) -> Platform.runLater(() -> {
+                    if (ex != null) {
+                        showAlert(Alert.AlertType.ERROR, "保存失败", AsyncFileWriter.unwrap(ex).getMessage());
+                        return;
+                    }
+                    showAlert(Alert.AlertType.INFORMATION, "保存成功", "数据已成功保存");
+                }));
             }
         });
 
@@ -522,59 +546,77 @@ public class VulnTreeInputWindow {
         // 创建自定义工具提示作为建议列表
         CustomTooltip suggestionTooltip = new CustomTooltip();
 
+        // 输入停顿后再检索，检索在后台线程执行；序号变化说明输入已更新，旧结果直接丢弃
+        PauseTransition suggestionDelay = new PauseTransition(Duration.millis(SUGGESTION_DELAY_MS));
+        final long[] querySeq = {0};
+        final Future<?>[] runningQuery = {null};
+        suggestionDelay.setOnFinished(event -> {
+            String query = name.getText();
+            long seq = querySeq[0];
+            if (runningQuery[0] != null) {
+                runningQuery[0].cancel(false);
+            }
+            runningQuery[0] = SUGGESTION_EXECUTOR.submit(() -> {
+                List<String> matchedVulns = vulnerabilityService.getNameIndex().search(query, VULN_SUGGESTION_LIMIT);
+                Platform.runLater(() -> {
+                    if (seq != querySeq[0]) {
+                        return;
+                    }
+                    if (matchedVulns.isEmpty()) {
+                        suggestionTooltip.hide();
+                        return;
+                    }
+
+                    // 如果只有一个精确匹配，自动填充
+                    if (matchedVulns.size() == 1 &&
+                        matchedVulns.get(0).equalsIgnoreCase(query.trim())) {
+                        VulnerabilityService.Vulnerability vuln = vulnerabilityService.getVulnerability(matchedVulns.get(0));
+                        if (vuln != null) {
+                            desc.setText(vuln.getDescription());
+                            level.setText(vuln.getRiskLevel());
+                            harm.setText(vuln.getHarm());
+                            fix.setText(vuln.getSuggustion());
+                        }
+                        suggestionTooltip.hide();
+                        return;
+                    }
+
+                    // 显示建议列表
+                    suggestionTooltip.showSuggestions(matchedVulns, name, vuln -> {
+                        VulnerabilityService.Vulnerability vulnData = vulnerabilityService.getVulnerability(vuln);
+                        if (vulnData != null) {
+                            name.setText(vuln);
+                            desc.setText(vulnData.getDescription());
+                            level.setText(vulnData.getRiskLevel());
+                            harm.setText(vulnData.getHarm());
+                            fix.setText(vulnData.getSuggustion());
+                        }
+                        suggestionTooltip.hide();
+                    });
+                });
+            });
+        });
+
         // 自动完成功能实现
         name.textProperty().addListener((observable, oldValue, newValue) -> {
             // 如果正在加载数据，不触发自动完成
             if (isLoading[0]) {
                 return;
             }
+            querySeq[0]++;
             if (newValue == null || newValue.trim().isEmpty()) {
+                suggestionDelay.stop();
                 suggestionTooltip.hide();
                 return;
             }
-
-            // 从漏洞库中匹配漏洞名称
-            List<String> matchedVulns = vulnerabilityService.getVulnerabilityMap().keySet().stream()
-                    .filter(vulnName -> vulnName.toLowerCase().contains(newValue.toLowerCase().trim()))
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            if (matchedVulns.isEmpty()) {
-                suggestionTooltip.hide();
-                return;
-            }
-
-            // 如果只有一个精确匹配，自动填充
-            if (matchedVulns.size() == 1 &&
-                matchedVulns.get(0).equalsIgnoreCase(newValue.trim())) {
-                VulnerabilityService.Vulnerability vuln = vulnerabilityService.getVulnerability(matchedVulns.get(0));
-                if (vuln != null) {
-                    desc.setText(vuln.getDescription());
-                    level.setText(vuln.getRiskLevel());
-                    harm.setText(vuln.getHarm());
-                    fix.setText(vuln.getSuggustion());
-                }
-                suggestionTooltip.hide();
-                return;
-            }
-
-            // 显示建议列表
-            suggestionTooltip.showSuggestions(matchedVulns, name, vuln -> {
-                VulnerabilityService.Vulnerability vulnData = vulnerabilityService.getVulnerability(vuln);
-                if (vulnData != null) {
-                    name.setText(vuln);
-                    desc.setText(vulnData.getDescription());
-                    level.setText(vulnData.getRiskLevel());
-                    harm.setText(vulnData.getHarm());
-                    fix.setText(vulnData.getSuggustion());
-                }
-                suggestionTooltip.hide();
-            });
+            suggestionDelay.playFromStart();
         });
 
-        // 当输入框失去焦点时隐藏建议
+        // 当输入框失去焦点时隐藏建议，尚未返回的检索结果不再显示
         name.focusedProperty().addListener((observable, oldValue, newValue) -> {
             if (!newValue) {
+                querySeq[0]++;
+                suggestionDelay.stop();
                 suggestionTooltip.hide();
             }
         });
@@ -802,15 +844,13 @@ public class VulnTreeInputWindow {
 
     /**
      * 保存漏洞数据
+     * 在后台原子写入，连续多次保存只写最后一次
+     * @return 写入完成时结束的 Future，写入失败时异常结束
      */
-    private void saveData() {
-        try (FileOutputStream out = new FileOutputStream(saveFile)) {
-            String json = JSON.toJSONString(unitEntries);
-            out.write(json.getBytes(StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            LogUtils.error(VulnTreeInputWindow.class, "保存文件失败：" + e.getMessage());
-            showAlert(Alert.AlertType.ERROR, "保存失败", e.getMessage());
-        }
+    private CompletableFuture<Void> saveData() {
+        // 每次保存前 unitEntries 都会重新收集，快照中的条目不会再被修改
+        List<UnitEntry> snapshot = new ArrayList<>(unitEntries);
+        return AsyncFileWriter.saveString(saveFile.toPath(), () -> JSON.toJSONString(snapshot));
     }
 
     /**
@@ -818,6 +858,7 @@ public class VulnTreeInputWindow {
      * @param container 容器
      */
     private void loadDataToUI(VBox container) {
+        AsyncFileWriter.flush(saveFile.toPath());
         if (!saveFile.exists()) return;
 
         // 创建加载状态标记
@@ -0,0 +1,155 @@
+package com.y5neko.ssrtools.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 后台延迟写入
+ * 配置、漏洞树等文件的保存在后台单线程中完成，不阻塞UI线程；同一文件在写入前多次保存只写最后一次。
+ * 写入通过 FileUtils.writeAtomically 完成（临时文件 + fsync + 重命名），中途崩溃不会损坏原文件。
+ * 读取可能有待写入内容的文件前应先调用 flush(path)，程序退出时通过关闭钩子写完全部待写入内容。
+ */
+public class AsyncFileWriter {
+    // 保存后等待的时间，期间的重复保存合并为一次写入
+    private static final long COALESCE_DELAY_MS = 200;
+
+    // 待写入的文件，键为规范化后的绝对路径
+    private static final Map<Path, PendingWrite> PENDING = new ConcurrentHashMap<>();
+
+    // 取出待写入内容与写盘在同一把锁内完成，flush 返回时后台线程不会仍在写同一文件
+    private static final Object WRITE_LOCK = new Object();
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ssrtools-file-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncFileWriter::flush, "ssrtools-file-writer-flush"));
+    }
+
+    private AsyncFileWriter() {
+    }
+
+    /**
+     * 计划保存文件
+     * 内容在后台线程中生成并写入，调用方需保证 content 引用的数据在此期间不再被修改（可传入快照）
+     * @param path 文件路径
+     * @param content 文件内容，在写入时才调用
+     * @return 写入完成（或被之后的保存合并后完成）时结束的 Future，写入失败时异常结束
+     */
+    public static CompletableFuture<Void> save(Path path, Supplier<byte[]> content) {
+        Path key = path.toAbsolutePath().normalize();
+        PendingWrite write = new PendingWrite(key, content);
+        PendingWrite replaced = PENDING.put(key, write);
+        if (replaced != null) {
+            // 被合并的保存随最新一次保存一同完成
+            write.future.whenComplete((result, error) -> {
+                if (error != null) {
+                    replaced.future.completeExceptionally(error);
+                } else {
+                    replaced.future.complete(null);
+                }
+            });
+        }
+        WRITER.schedule(() -> writePending(key), COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        return write.future;
+    }
+
+    /**
+     * 计划保存文本文件（UTF-8）
+     * @param path 文件路径
+     * @param content 文件内容，在写入时才调用
+     * @return 写入完成时结束的 Future
+     */
+    public static CompletableFuture<Void> saveString(Path path, Supplier<String> content) {
+        return save(path, () -> content.get().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 取出 Future 异常结束时的原始异常，便于向用户展示其消息
+     * @param error whenComplete 等回调中得到的异常
+     * @return 原始异常
+     */
+    public static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * 立即在当前线程原子写入文件，取代该文件尚未写入的保存
+     * @param path 文件路径
+     * @param content 文件内容
+     * @throws IOException 写入失败
+     */
+    public static void write(Path path, byte[] content) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (WRITE_LOCK) {
+            PendingWrite replaced = PENDING.remove(key);
+            FileUtils.writeAtomically(key, content);
+            if (replaced != null) {
+                replaced.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 立即写入指定文件的待写入内容；后台线程正在写入时等待其完成
+     * @param path 文件路径
+     */
+    public static void flush(Path path) {
+        writePending(path.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 立即写入全部待写入内容（程序退出时调用）
+     */
+    public static void flush() {
+        List<Path> paths = new ArrayList<>(PENDING.keySet());
+        for (Path path : paths) {
+            writePending(path);
+        }
+    }
+
+    private static void writePending(Path key) {
+        synchronized (WRITE_LOCK) {
+            PendingWrite write = PENDING.remove(key);
+            if (write == null) {
+                // 已被之前的任务或 flush 写入
+                return;
+            }
+            try {
+                FileUtils.writeAtomically(write.path, write.content.get());
+                write.future.complete(null);
+            } catch (IOException | RuntimeException e) {
+                LogUtils.error(AsyncFileWriter.class, "保存文件失败：" + write.path + " " + e.getMessage());
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        final Path path;
+        final Supplier<byte[]> content;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(Path path, Supplier<byte[]> content) {
+            this.path = path;
+            this.content = content;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.y5neko.ssrtools.utils;
 
+import com.y5neko.ssrtools.config.AppPaths;
 import com.y5neko.ssrtools.config.GlobalConfig;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 标题组件加载工具
@@ -22,6 +25,12 @@ public class ComponentLoader {
         "normal_text.txt"
     };
 
+    // 组件缓存校验间隔（毫秒），间隔内重复使用不再访问文件系统
+    private static final long VALIDATE_INTERVAL_MS = 1000;
+
+    // 已编译组件缓存，key为 模板名称/组件文件名
+    private static final Map<String, CachedComponent> COMPONENT_CACHE = new ConcurrentHashMap<>();
+
     /**
      * 加载指定模板的标题组件内容
      *
@@ -32,25 +41,80 @@ public class ComponentLoader {
      */
     public static String loadComponent(String templateName, String componentFile) throws IOException {
         // 首先尝试从用户组件目录加载
-        String userComponentPath = GlobalConfig.USER_COMPONENTS_DIR + File.separator + templateName + File.separator + componentFile;
-        File userComponentFile = new File(MiscUtils.getAbsolutePath(userComponentPath));
+        File userComponentFile = AppPaths.USER_COMPONENTS_DIR.resolve(templateName).resolve(componentFile).toFile();
 
         if (userComponentFile.exists()) {
-            return FileUtils.readFile(MiscUtils.getAbsolutePath(userComponentPath));
+            return FileUtils.readString(userComponentFile.getPath());
         }
 
         // 如果用户组件不存在，使用默认组件
-        String defaultComponentPath = GlobalConfig.DEFAULT_COMPONENTS_DIR + File.separator + componentFile;
-        File defaultComponentFile = new File(MiscUtils.getAbsolutePath(defaultComponentPath));
+        File defaultComponentFile = AppPaths.DEFAULT_COMPONENTS_DIR.resolve(componentFile).toFile();
 
         if (defaultComponentFile.exists()) {
-            return FileUtils.readFile(MiscUtils.getAbsolutePath(defaultComponentPath));
+            return FileUtils.readString(defaultComponentFile.getPath());
         }
 
         // 如果默认组件也不存在，抛出异常
         throw new IOException("组件文件不存在: " + componentFile + " (用户和默认目录都没有找到)");
     }
 
+    /**
+     * 加载指定模板的已编译标题组件（带缓存）
+     * 组件按占位符预先拆分，渲染时只需顺序拼接；组件文件的修改时间或大小变化后自动重新加载
+     *
+     * @param templateName 模板名称
+     * @param componentFile 组件文件名
+     * @return 已编译组件
+     * @throws IOException 文件读取异常
+     */
+    public static DocTemplate loadCompiledComponent(String templateName, String componentFile) throws IOException {
+        String key = templateName + "/" + componentFile;
+        CachedComponent cached = COMPONENT_CACHE.get(key);
+        long now = System.currentTimeMillis();
+
+        if (cached != null) {
+            if (now - cached.validatedAt < VALIDATE_INTERVAL_MS) {
+                return cached.template;
+            }
+            if (cached.isUnchanged()) {
+                cached.validatedAt = now;
+                return cached.template;
+            }
+        }
+
+        File userFile = AppPaths.USER_COMPONENTS_DIR.resolve(templateName).resolve(componentFile).toFile();
+        File defaultFile = AppPaths.DEFAULT_COMPONENTS_DIR.resolve(componentFile).toFile();
+
+        // 先记录文件状态再读取内容，读取期间发生的修改会在下次校验时被发现
+        long userModified = userFile.lastModified();
+        long userSize = userFile.length();
+        long defaultModified = defaultFile.lastModified();
+        long defaultSize = defaultFile.length();
+
+        String content = loadComponent(templateName, componentFile);
+        CachedComponent loaded = new CachedComponent(userFile, userModified, userSize,
+                defaultFile, defaultModified, defaultSize, DocTemplate.compile(content), now);
+        COMPONENT_CACHE.put(key, loaded);
+        return loaded.template;
+    }
+
+    /**
+     * 使指定模板的组件缓存失效，模板组件被替换、重命名或删除后调用
+     *
+     * @param templateName 模板名称
+     */
+    public static void invalidate(String templateName) {
+        String prefix = templateName + "/";
+        COMPONENT_CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 清空全部组件缓存
+     */
+    public static void invalidateAll() {
+        COMPONENT_CACHE.clear();
+    }
+
     /**
      * 检查指定模板是否有对应的用户组件
      *
@@ -127,6 +191,7 @@ public class ComponentLoader {
                 Files.copy(sourceFile.toPath(), targetFile.toPath());
             }
         }
+        invalidate(templateName);
     }
 
     /**
@@ -151,4 +216,40 @@ public class ComponentLoader {
                 return "未知组件";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 缓存的已编译组件，记录用户组件与默认组件的文件状态用于失效判断
+     */
+    private static class CachedComponent {
+        private final File userFile;
+        private final long userModified;
+        private final long userSize;
+        private final File defaultFile;
+        private final long defaultModified;
+        private final long defaultSize;
+        private final DocTemplate template;
+        private volatile long validatedAt;
+
+        CachedComponent(File userFile, long userModified, long userSize,
+                        File defaultFile, long defaultModified, long defaultSize,
+                        DocTemplate template, long validatedAt) {
+            this.userFile = userFile;
+            this.userModified = userModified;
+            this.userSize = userSize;
+            this.defaultFile = defaultFile;
+            this.defaultModified = defaultModified;
+            this.defaultSize = defaultSize;
+            this.template = template;
+            this.validatedAt = validatedAt;
+        }
+
+        boolean isUnchanged() {
+            if (userFile.lastModified() != userModified || userFile.length() != userSize) {
+                return false;
+            }
+            // 用户组件存在时默认组件的变化不影响结果
+            return userModified != 0L
+                    || (defaultFile.lastModified() == defaultModified && defaultFile.length() == defaultSize);
+        }
+    }
+}
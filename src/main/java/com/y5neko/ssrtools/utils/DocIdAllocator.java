@@ -0,0 +1,215 @@
+package com.y5neko.ssrtools.utils;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 文档内ID分配器
+ * 为单篇文档生成 w14:paraId 与 _Toc 书签名，保证与模板中已有ID及已分配ID均不重复。
+ * 每篇文档使用独立实例，不再争用全局 SecureRandom；指定种子时生成结果可复现。
+ * 并行渲染时各任务使用延迟分配器输出占位符，写出时再由本分配器按文档顺序统一分配，
+ * 因此结果与是否并行及线程调度无关。
+ */
+public class DocIdAllocator {
+    private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+    private static final String PARA_ID_ATTR = "w14:paraId=\"";
+    private static final String TOC_PREFIX = "_Toc";
+    // 占位符以XML中不允许出现的字符包围（正文内容转义时已过滤控制字符）
+    private static final char MARK = '\u0000';
+    private static final char KIND_PARA_ID = 'P';
+    private static final char KIND_TOC_NAME = 'T';
+
+    private final SplittableRandom random;
+    // 本文档已使用的ID
+    private final Set<String> used;
+    // 延迟分配器按调用顺序记录的ID类型，普通分配器为null
+    private final StringBuilder pending;
+
+    /**
+     * 使用随机种子创建分配器
+     */
+    public DocIdAllocator() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 使用指定种子创建分配器
+     * @param seed 随机种子
+     */
+    public DocIdAllocator(long seed) {
+        this(new SplittableRandom(seed), ConcurrentHashMap.<String>newKeySet());
+    }
+
+    private DocIdAllocator(SplittableRandom random, Set<String> used) {
+        this.random = random;
+        this.used = used;
+        this.pending = null;
+    }
+
+    private DocIdAllocator(StringBuilder pending) {
+        this.random = null;
+        this.used = null;
+        this.pending = pending;
+    }
+
+    /**
+     * 创建延迟分配器，供并行渲染任务使用
+     * 延迟分配器只返回占位符，渲染结果须经 {@link #resolve} 写出；只能在单个线程中使用
+     * @return 延迟分配器
+     */
+    public DocIdAllocator deferred() {
+        return new DocIdAllocator(new StringBuilder());
+    }
+
+    /**
+     * 写出延迟分配器渲染的内容，按占位符的分配顺序分配实际ID并替换
+     * 与直接使用本分配器渲染时的分配顺序相同，指定种子时结果一致
+     * @param deferred 渲染该内容的延迟分配器
+     * @param content 渲染结果
+     * @param out 输出目标
+     * @throws IOException 写入失败
+     */
+    public void resolve(DocIdAllocator deferred, CharSequence content, Appendable out) throws IOException {
+        String[] values = new String[deferred.pending.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = deferred.pending.charAt(i) == KIND_PARA_ID ? nextParaId() : nextTocName();
+        }
+
+        int start = 0;
+        int mark;
+        while ((mark = indexOf(content, MARK, start)) >= 0) {
+            int end = indexOf(content, MARK, mark + 1);
+            out.append(content, start, mark);
+            out.append(values[Integer.parseInt(content.subSequence(mark + 1, end).toString())]);
+            start = end + 1;
+        }
+        out.append(content, start, content.length());
+    }
+
+    /**
+     * 登记一个待分配的ID并返回其占位符
+     */
+    private String placeholder(char kind) {
+        int index = pending.length();
+        pending.append(kind);
+        return MARK + Integer.toString(index) + MARK;
+    }
+
+    /**
+     * 登记XML内容中已存在的 paraId 与 _Toc 书签名，之后不会再分配这些ID
+     * @param xml XML内容
+     */
+    public void reserve(CharSequence xml) {
+        int index = 0;
+        while ((index = indexOf(xml, PARA_ID_ATTR, index)) >= 0) {
+            int start = index + PARA_ID_ATTR.length();
+            int end = start;
+            while (end < xml.length() && xml.charAt(end) != '"') {
+                end++;
+            }
+            if (end >= xml.length()) {
+                break;
+            }
+            used.add(xml.subSequence(start, end).toString().toUpperCase());
+            index = end;
+        }
+
+        index = 0;
+        while ((index = indexOf(xml, TOC_PREFIX, index)) >= 0) {
+            int end = index + TOC_PREFIX.length();
+            while (end < xml.length() && Character.isDigit(xml.charAt(end))) {
+                end++;
+            }
+            if (end > index + TOC_PREFIX.length()) {
+                used.add(xml.subSequence(index, end).toString());
+            }
+            index = end;
+        }
+    }
+
+    private static int indexOf(CharSequence text, char target, int from) {
+        if (text instanceof String) {
+            return ((String) text).indexOf(target, from);
+        }
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在字符序列中查找字符串，无需先转换为 String
+     */
+    private static int indexOf(CharSequence text, String target, int from) {
+        if (text instanceof String) {
+            return ((String) text).indexOf(target, from);
+        }
+        char first = target.charAt(0);
+        int max = text.length() - target.length();
+        for (int i = from; i <= max; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length() && text.charAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 分配新的 paraId（8位十六进制，取值范围 1 ~ 0x7FFFFFFF，符合Word要求）
+     * @return paraId
+     */
+    public synchronized String nextParaId() {
+        if (pending != null) {
+            return placeholder(KIND_PARA_ID);
+        }
+        while (true) {
+            int value = random.nextInt() & 0x7FFFFFFF;
+            if (value == 0) {
+                continue;
+            }
+            char[] chars = new char[8];
+            for (int i = 7; i >= 0; i--) {
+                chars[i] = HEX_CHARS[value & 0xF];
+                value >>>= 4;
+            }
+            String id = new String(chars);
+            if (used.add(id)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * 分配新的目录书签名（_Toc 加8位数字）
+     * @return 书签名
+     */
+    public synchronized String nextTocName() {
+        if (pending != null) {
+            return placeholder(KIND_TOC_NAME);
+        }
+        while (true) {
+            int value = random.nextInt(100_000_000);
+            char[] chars = new char[8];
+            for (int i = 7; i >= 0; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            String name = TOC_PREFIX + new String(chars);
+            if (used.add(name)) {
+                return name;
+            }
+        }
+    }
+}
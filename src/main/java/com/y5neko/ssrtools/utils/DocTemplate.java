@@ -0,0 +1,235 @@
+package com.y5neko.ssrtools.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译文档模板
+ * 将 document.xml 等模板内容一次性拆分为文本段与占位符槽位，渲染时单次顺序输出，
+ * 避免对整篇文档反复执行 String.replace
+ */
+public class DocTemplate {
+    private static final String PLACEHOLDER_START = "{{{{{";
+    private static final String PLACEHOLDER_END = "}}}}}";
+
+    // 已编译模板缓存，key为模板文件绝对路径
+    private static final Map<String, CacheEntry> CACHE = new ConcurrentHashMap<>();
+
+    // 文本段，长度比槽位多1：segments[0] slot[0] segments[1] slot[1] ... segments[n]
+    private final String[] segments;
+    private final Slot[] slots;
+    private final int literalLength;
+    // 内容指纹，首次使用时计算
+    private volatile String fingerprint;
+
+    private DocTemplate(String[] segments, Slot[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 编译模板内容
+     * @param source 模板原文
+     * @return 编译后的模板
+     */
+    public static DocTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+
+        int segmentStart = 0;
+        int searchFrom = 0;
+        while (true) {
+            int start = source.indexOf(PLACEHOLDER_START, searchFrom);
+            if (start < 0) {
+                break;
+            }
+            int nameStart = start + PLACEHOLDER_START.length();
+            int end = source.indexOf(PLACEHOLDER_END, nameStart);
+            if (end < 0) {
+                break;
+            }
+            String name = source.substring(nameStart, end);
+            if (!isValidName(name)) {
+                // 不是合法占位符（如多出的花括号），从下一个字符继续查找
+                searchFrom = start + 1;
+                continue;
+            }
+            segments.add(source.substring(segmentStart, start));
+            slots.add(new Slot(name));
+            segmentStart = end + PLACEHOLDER_END.length();
+            searchFrom = segmentStart;
+        }
+        segments.add(source.substring(segmentStart));
+
+        return new DocTemplate(segments.toArray(new String[0]), slots.toArray(new Slot[0]));
+    }
+
+    /**
+     * 加载并编译模板文件，按路径缓存，文件修改时间或大小变化时重新编译
+     * @param filePath 模板文件路径
+     * @return 编译后的模板
+     */
+    public static DocTemplate load(String filePath) {
+        File file = new File(filePath);
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long size = file.length();
+
+        CacheEntry entry = CACHE.get(key);
+        if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+            return entry.template;
+        }
+
+        String source;
+        try {
+            source = FileUtils.readString(key);
+        } catch (IOException e) {
+            // 与以往行为一致：读取失败时记录日志并按空模板处理
+            LogUtils.error(DocTemplate.class, "读取模板失败：" + e.getMessage());
+            source = "";
+        }
+        DocTemplate template = compile(source);
+        CACHE.put(key, new CacheEntry(lastModified, size, template));
+        return template;
+    }
+
+    /**
+     * 渲染模板到输出目标
+     * 未提供值的占位符原样保留，便于后续阶段继续替换
+     * @param values 占位符名称到替换值的映射（值需已完成XML转义）
+     * @param out 输出目标（Writer、StringBuilder等）
+     * @throws IOException 写入失败
+     */
+    public void render(Map<String, String> values, Appendable out) throws IOException {
+        render(values, Collections.<String, SlotWriter>emptyMap(), out);
+    }
+
+    /**
+     * 渲染模板到输出目标，slotWriters 中的占位符由写入器直接向输出目标写入内容，
+     * 适用于 MainContent 等体积较大的内容，无需先拼接为完整字符串
+     * @param values 占位符名称到替换值的映射（值需已完成XML转义）
+     * @param slotWriters 占位符名称到内容写入器的映射，优先于 values
+     * @param out 输出目标
+     * @throws IOException 写入失败
+     */
+    public void render(Map<String, String> values, Map<String, SlotWriter> slotWriters, Appendable out)
+            throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            SlotWriter writer = slotWriters.get(slots[i].name);
+            if (writer != null) {
+                writer.write(out);
+                continue;
+            }
+            String value = values.get(slots[i].name);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append(PLACEHOLDER_START).append(slots[i].name).append(PLACEHOLDER_END);
+            }
+        }
+        out.append(segments[slots.length]);
+    }
+
+    /**
+     * 渲染模板为字符串
+     * @param values 占位符名称到替换值的映射（值需已完成XML转义）
+     * @return 渲染结果
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder sb = new StringBuilder(literalLength + slots.length * 16);
+        try {
+            render(values, sb);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出IO异常
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 获取模板文本段（不含占位符），可用于扫描模板中已有的ID等内容
+     * @return 文本段列表（只读）
+     */
+    public List<String> getSegments() {
+        return Collections.unmodifiableList(Arrays.asList(segments));
+    }
+
+    /**
+     * 获取模板内容指纹（文本段与占位符依次计算的SHA-256），内容相同的模板指纹相同，可用作缓存键的一部分
+     * @return 十六进制指纹
+     */
+    public String getFingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            MessageDigest digest = MiscUtils.sha256();
+            for (int i = 0; i < slots.length; i++) {
+                MiscUtils.digestString(digest, segments[i]);
+                MiscUtils.digestString(digest, slots[i].name);
+            }
+            MiscUtils.digestString(digest, segments[slots.length]);
+            result = MiscUtils.toHex(digest.digest());
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '{' || c == '}' || c == '<' || c == '>') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 占位符内容写入器
+     */
+    public interface SlotWriter {
+        void write(Appendable out) throws IOException;
+    }
+
+    /**
+     * 占位符槽位
+     */
+    private static class Slot {
+        private final String name;
+
+        Slot(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static class CacheEntry {
+        private final long lastModified;
+        private final long size;
+        private final DocTemplate template;
+
+        CacheEntry(long lastModified, long size, DocTemplate template) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.template = template;
+        }
+    }
+}
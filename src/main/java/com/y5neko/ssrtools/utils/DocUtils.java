@@ -1,25 +1,63 @@
 package com.y5neko.ssrtools.utils;
 
+import com.y5neko.ssrtools.config.AppPaths;
 import com.y5neko.ssrtools.models.docdata.ReportData;
 import com.y5neko.ssrtools.models.docdata.SystemInfo;
 import com.y5neko.ssrtools.models.docdata.Unit;
 import com.y5neko.ssrtools.models.docdata.Vulnerability;
 import com.y5neko.ssrtools.object.DocObj;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Pattern;
 
 import static com.y5neko.ssrtools.config.GlobalConfig.*;
 
 public class DocUtils {
 
+    // docx中需要打包的模板部件（相对于样式模板目录）
+    private static final String[] DOCX_PARTS = {
+            "_rels",
+            "customXml",
+            "docProps",
+            "word",
+            "[Content_Types].xml"
+    };
+
+    private static final String DOCUMENT_XML_ENTRY = "word/document.xml";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * docx内容写入器
+     */
+    private interface ReportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
     /**
      * 统一安全替换（自动转义）
      */
@@ -28,57 +66,121 @@ public class DocUtils {
     }
 
     /**
-     * 专用于正文处理多行内容
+     * 报告正文使用的组件
      */
-    private static String processNormalTextLine(String template, String lineText) {
-        return template
-                .replace("{{{{{normal_text}}}}}", XmlEscapeUtils.escape(lineText))
-                .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
+    private enum Component {
+        FIRST_HEADING("first_level_heading.txt", FIRST_LEVEL_HEADING_TEPMLATE_PATH, "一级标题", "first_heading_text"),
+        SECOND_HEADING("second_level_heading.txt", SECOND_LEVEL_HEADING_TEPMLATE_PATH, "二级标题", "second_heading_text"),
+        THIRD_HEADING("third_level_heading.txt", THIRD_LEVEL_HEADING_TEPMLATE_PATH, "三级标题", "third_heading_text"),
+        FOURTH_HEADING("fourth_level_heading.txt", FOURTH_LEVEL_HEADING_TEPMLATE_PATH, "四级标题", "fourth_heading_text"),
+        NORMAL_TEXT("normal_text.txt", NORMAL_TEXT_TEPMLATE_PATH, "正文", "normal_text");
+
+        private final String file;
+        // 默认组件的绝对路径
+        private final String fallbackPath;
+        private final String description;
+        private final String textSlot;
+
+        Component(String file, String fallbackPath, String description, String textSlot) {
+            this.file = file;
+            this.fallbackPath = AppPaths.resolve(fallbackPath).toString();
+            this.description = description;
+            this.textSlot = textSlot;
+        }
     }
 
-    public static String firstHeadingGen(String text) {
-        return firstHeadingGen(text, "默认模板");
+    /**
+     * 获取组件
+     * 优先使用按模板缓存的已编译组件，加载失败时降级到默认组件
+     */
+    private static DocTemplate loadComponent(String templateName, Component component) {
+        try {
+            return ComponentLoader.loadCompiledComponent(templateName, component.file);
+        } catch (IOException e) {
+            LogUtils.error(DocUtils.class, "加载" + component.description + "组件失败: " + templateName, e);
+            // 降级到默认组件
+            return DocTemplate.load(component.fallbackPath);
+        }
     }
 
-    public static String firstHeadingGen(String text, String templateName) {
+    /**
+     * 渲染单个组件片段并追加到输出
+     */
+    private static void appendComponent(StringBuilder out, DocIdAllocator ids, String templateName,
+                                        Component type, String text) {
+        DocTemplate component = loadComponent(templateName, type);
+        String textSlot = type.textSlot;
+
+        Map<String, String> values = new HashMap<>(4);
+        values.put("paraId", ids.nextParaId());
+        values.put("TocName", ids.nextTocName());
+
+        if (type != Component.NORMAL_TEXT || !text.contains("\n")) {
+            values.put(textSlot, XmlEscapeUtils.escape(text));
+            appendRendered(out, component, values);
+            return;
+        }
+
+        // 正文多行内容逐行生成段落
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                out.append("\n");
+                values.put("paraId", ids.nextParaId());
+                values.put("TocName", ids.nextTocName());
+            }
+            values.put(textSlot, XmlEscapeUtils.escape(lines[i]));
+            appendRendered(out, component, values);
+        }
+    }
+
+    private static void appendRendered(StringBuilder out, DocTemplate component, Map<String, String> values) {
         try {
-            String contentTemplate = ComponentLoader.loadComponent(templateName, "first_level_heading.txt");
-            return contentTemplate
-                    .replace("{{{{{first_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
+            component.render(values, out);
         } catch (IOException e) {
-            LogUtils.error(DocUtils.class, "加载一级标题组件失败: " + templateName, e);
-            // 降级到默认组件
-            String contentTemplate = FileUtils.readFile(MiscUtils.getAbsolutePath(FIRST_LEVEL_HEADING_TEPMLATE_PATH));
-            return contentTemplate
-                    .replace("{{{{{first_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
+            // StringBuilder 不会抛出IO异常
+            throw new UncheckedIOException(e);
         }
     }
 
+    private static void appendFirstHeading(StringBuilder out, DocIdAllocator ids, String text, String templateName) {
+        appendComponent(out, ids, templateName, Component.FIRST_HEADING, text);
+    }
+
+    private static void appendSecondHeading(StringBuilder out, DocIdAllocator ids, String text, String templateName) {
+        appendComponent(out, ids, templateName, Component.SECOND_HEADING, text);
+    }
+
+    private static void appendThirdHeading(StringBuilder out, DocIdAllocator ids, String text, String templateName) {
+        appendComponent(out, ids, templateName, Component.THIRD_HEADING, text);
+    }
+
+    private static void appendFourthHeading(StringBuilder out, DocIdAllocator ids, String text, String templateName) {
+        appendComponent(out, ids, templateName, Component.FOURTH_HEADING, text);
+    }
+
+    private static void appendNormalText(StringBuilder out, DocIdAllocator ids, String text, String templateName) {
+        appendComponent(out, ids, templateName, Component.NORMAL_TEXT, text);
+    }
+
+    public static String firstHeadingGen(String text) {
+        return firstHeadingGen(text, "默认模板");
+    }
+
+    public static String firstHeadingGen(String text, String templateName) {
+        StringBuilder sb = new StringBuilder();
+        appendFirstHeading(sb, new DocIdAllocator(), text, templateName);
+        return sb.toString();
+    }
+
     public static String secondHeadingGen(String text) {
         return secondHeadingGen(text, "默认模板");
     }
 
     public static String secondHeadingGen(String text, String templateName) {
-        try {
-            String contentTemplate = ComponentLoader.loadComponent(templateName, "second_level_heading.txt");
-            return contentTemplate
-                    .replace("{{{{{second_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        } catch (IOException e) {
-            LogUtils.error(DocUtils.class, "加载二级标题组件失败: " + templateName, e);
-            // 降级到默认组件
-            String contentTemplate = FileUtils.readFile(MiscUtils.getAbsolutePath(SECOND_LEVEL_HEADING_TEPMLATE_PATH));
-            return contentTemplate
-                    .replace("{{{{{second_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        }
+        StringBuilder sb = new StringBuilder();
+        appendSecondHeading(sb, new DocIdAllocator(), text, templateName);
+        return sb.toString();
     }
 
     public static String thirdHeadingGen(String text) {
@@ -86,21 +188,9 @@ public class DocUtils {
     }
 
     public static String thirdHeadingGen(String text, String templateName) {
-        try {
-            String contentTemplate = ComponentLoader.loadComponent(templateName, "third_level_heading.txt");
-            return contentTemplate
-                    .replace("{{{{{third_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        } catch (IOException e) {
-            LogUtils.error(DocUtils.class, "加载三级标题组件失败: " + templateName, e);
-            // 降级到默认组件
-            String contentTemplate = FileUtils.readFile(MiscUtils.getAbsolutePath(THIRD_LEVEL_HEADING_TEPMLATE_PATH));
-            return contentTemplate
-                    .replace("{{{{{third_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        }
+        StringBuilder sb = new StringBuilder();
+        appendThirdHeading(sb, new DocIdAllocator(), text, templateName);
+        return sb.toString();
     }
 
     public static String fourthHeadingGen(String text) {
@@ -108,21 +198,9 @@ public class DocUtils {
     }
 
     public static String fourthHeadingGen(String text, String templateName) {
-        try {
-            String contentTemplate = ComponentLoader.loadComponent(templateName, "fourth_level_heading.txt");
-            return contentTemplate
-                    .replace("{{{{{fourth_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        } catch (IOException e) {
-            LogUtils.error(DocUtils.class, "加载四级标题组件失败: " + templateName, e);
-            // 降级到默认组件
-            String contentTemplate = FileUtils.readFile(MiscUtils.getAbsolutePath(FOURTH_LEVEL_HEADING_TEPMLATE_PATH));
-            return contentTemplate
-                    .replace("{{{{{fourth_heading_text}}}}}", XmlEscapeUtils.escape(text))
-                    .replace("{{{{{paraId}}}}}", MiscUtils.getParaID())
-                    .replace("{{{{{TocName}}}}}", MiscUtils.getTocName());
-        }
+        StringBuilder sb = new StringBuilder();
+        appendFourthHeading(sb, new DocIdAllocator(), text, templateName);
+        return sb.toString();
     }
 
     public static String normalTextGen(String text) {
@@ -130,39 +208,9 @@ public class DocUtils {
     }
 
     public static String normalTextGen(String text, String templateName) {
-        try {
-            String contentTemplate = ComponentLoader.loadComponent(templateName, "normal_text.txt");
-
-            if (text.contains("\n")) {
-                StringBuilder result = new StringBuilder();
-                String[] lines = text.split("\n");
-
-                for (int i = 0; i < lines.length; i++) {
-                    if (i > 0) result.append("\n");
-                    result.append(processNormalTextLine(contentTemplate, lines[i]));
-                }
-                return result.toString();
-            } else {
-                return processNormalTextLine(contentTemplate, text);
-            }
-        } catch (IOException e) {
-            LogUtils.error(DocUtils.class, "加载正文组件失败: " + templateName, e);
-            // 降级到默认组件
-            String contentTemplate = FileUtils.readFile(MiscUtils.getAbsolutePath(NORMAL_TEXT_TEPMLATE_PATH));
-
-            if (text.contains("\n")) {
-                StringBuilder result = new StringBuilder();
-                String[] lines = text.split("\n");
-
-                for (int i = 0; i < lines.length; i++) {
-                    if (i > 0) result.append("\n");
-                    result.append(processNormalTextLine(contentTemplate, lines[i]));
-                }
-                return result.toString();
-            } else {
-                return processNormalTextLine(contentTemplate, text);
-            }
-        }
+        StringBuilder sb = new StringBuilder();
+        appendNormalText(sb, new DocIdAllocator(), text, templateName);
+        return sb.toString();
     }
 
     public static String contentGen(DocObj docObj) {
@@ -170,106 +218,447 @@ public class DocUtils {
     }
 
     public static String contentGen(DocObj docObj, String templatePath) {
-        String actualTemplatePath = templatePath != null ? templatePath : DOC_TEMPLATE_PATH;
-
-        String contentTemplates = FileUtils.readFile(
-                MiscUtils.getAbsolutePath(actualTemplatePath) + "/word/document.xml"
-        );
-
-        return contentTemplates
-                .replace("{{{{{customer_name}}}}}", XmlEscapeUtils.escape(docObj.getCustomerName()))
-                .replace("{{{{{is_firsr_test}}}}}", XmlEscapeUtils.escape(docObj.getIsFirsrTest()))
-                .replace("{{{{{signature_name}}}}}", XmlEscapeUtils.escape(docObj.getSignatureName()))
-                .replace("{{{{{report_year}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getReportYear())))
-                .replace("{{{{{report_month}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getReportMonth())))
-                .replace("{{{{{report_day}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getReportDay())))
-                .replace("{{{{{report_reporter}}}}}", XmlEscapeUtils.escape(docObj.getReporter()))
-                .replace("{{{{{test_time}}}}}", XmlEscapeUtils.escape(docObj.getTestTime()))
-                .replace("{{{{{vul_all_count}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getVulAllCount())))
-                .replace("{{{{{vul_high_count}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getVulHighCount())))
-                .replace("{{{{{vul_medium_count}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getVulMediumCount())))
-                .replace("{{{{{vul_low_count}}}}}", XmlEscapeUtils.escape(Integer.toString(docObj.getVulLowCount())))
-                .replace("{{{{{pm_name}}}}}", XmlEscapeUtils.escape(docObj.getPmName()))
-                .replace("{{{{{tester_name}}}}}", XmlEscapeUtils.escape(docObj.getTesterName()));
+        return loadDocTemplate(templatePath).render(docPlaceholderValues(docObj));
+    }
+
+    /**
+     * 渲染报告主体模板并直接写入输出目标，MainContent占位符原样保留
+     * @param docObj 文档对象
+     * @param templatePath 样式模板路径，为null时使用默认模板
+     * @param out 输出目标
+     * @throws IOException 写入失败
+     */
+    public static void contentGen(DocObj docObj, String templatePath, Appendable out) throws IOException {
+        loadDocTemplate(templatePath).render(docPlaceholderValues(docObj), out);
+    }
+
+    /**
+     * 获取样式模板对应的已编译 document.xml
+     * @param templatePath 样式模板路径，为null时使用默认模板
+     * @return 已编译模板
+     */
+    public static DocTemplate loadDocTemplate(String templatePath) {
+        return DocTemplate.load(resolveTemplateDir(templatePath) + "/word/document.xml");
+    }
+
+    /**
+     * 构建报告主体普通占位符的替换值（已转义）
+     * @param docObj 文档对象
+     * @return 占位符名称到替换值的映射
+     */
+    public static Map<String, String> docPlaceholderValues(DocObj docObj) {
+        Map<String, String> values = new HashMap<>();
+        values.put("customer_name", XmlEscapeUtils.escape(docObj.getCustomerName()));
+        values.put("is_firsr_test", XmlEscapeUtils.escape(docObj.getIsFirsrTest()));
+        values.put("signature_name", XmlEscapeUtils.escape(docObj.getSignatureName()));
+        values.put("report_year", XmlEscapeUtils.escape(Integer.toString(docObj.getReportYear())));
+        values.put("report_month", XmlEscapeUtils.escape(Integer.toString(docObj.getReportMonth())));
+        values.put("report_day", XmlEscapeUtils.escape(Integer.toString(docObj.getReportDay())));
+        values.put("report_reporter", XmlEscapeUtils.escape(docObj.getReporter()));
+        values.put("test_time", XmlEscapeUtils.escape(docObj.getTestTime()));
+        values.put("vul_all_count", XmlEscapeUtils.escape(Integer.toString(docObj.getVulAllCount())));
+        values.put("vul_high_count", XmlEscapeUtils.escape(Integer.toString(docObj.getVulHighCount())));
+        values.put("vul_medium_count", XmlEscapeUtils.escape(Integer.toString(docObj.getVulMediumCount())));
+        values.put("vul_low_count", XmlEscapeUtils.escape(Integer.toString(docObj.getVulLowCount())));
+        values.put("pm_name", XmlEscapeUtils.escape(docObj.getPmName()));
+        values.put("tester_name", XmlEscapeUtils.escape(docObj.getTesterName()));
+        return values;
     }
 
     public static String mainContentGen(ReportData reportData, DocObj docObj) {
         StringBuilder mainContent = new StringBuilder();
+        try {
+            mainContentGen(reportData, docObj, new DocIdAllocator(), mainContent);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出IO异常
+            throw new UncheckedIOException(e);
+        }
+        return mainContent.toString();
+    }
+
+    /**
+     * 生成报告正文并逐段写入输出目标
+     * 每个漏洞渲染到复用的缓冲区后立即写出，内存占用与漏洞数量无关；
+     * 漏洞总数达到 PARALLEL_RENDER_THRESHOLD 时按系统并行渲染，结果按原顺序写出
+     * @param reportData 报告数据
+     * @param docObj 文档对象
+     * @param ids 本文档的ID分配器
+     * @param out 输出目标
+     * @throws IOException 写入失败
+     */
+    public static void mainContentGen(ReportData reportData, DocObj docObj, DocIdAllocator ids, Appendable out)
+            throws IOException {
+        if (PARALLEL_RENDER_THRESHOLD > 0 && countVulnerabilities(reportData) >= PARALLEL_RENDER_THRESHOLD) {
+            parallelMainContentGen(reportData, docObj, ids, out);
+            return;
+        }
+
+        StringBuilder section = new StringBuilder();
         String templateName = docObj.getTemplateName();
 
         for (Unit unit : reportData.getUnits()) {
-            mainContent.append(firstHeadingGen(unit.getUnitName(), templateName));
+            appendFirstHeading(section, ids, unit.getUnitName(), templateName);
 
             for (SystemInfo systemInfo : unit.getSystems()) {
-                mainContent.append(secondHeadingGen(systemInfo.getSystemName(), templateName));
+                appendSecondHeading(section, ids, systemInfo.getSystemName(), templateName);
 
                 for (Vulnerability vulnerability : systemInfo.getVulnerabilities()) {
+                    appendVulnerability(section, ids, vulnerability, docObj);
+                    flushSection(section, out);
+                }
+            }
+            flushSection(section, out);
+        }
+    }
+
+    /**
+     * 按系统拆分为独立任务并行渲染，单位标题在当前线程按顺序写出
+     */
+    private static void parallelMainContentGen(ReportData reportData, DocObj docObj, DocIdAllocator ids,
+                                               Appendable out) throws IOException {
+        String templateName = docObj.getTemplateName();
 
-                    String title;
-                    if (docObj.getIsFirsrTest().equals("初测")) {
-                        title = "【" + vulnerability.getRiskLevel() + "】" + vulnerability.getName();
-                    } else {
-                        title = "【" + vulnerability.getRiskLevel() + "】" +
-                                vulnerability.getName() + "（" + vulnerability.getIsFixed() + "）";
+        // 先全部提交，再按原顺序等待并写出，已写出的结果随即释放
+        List<ForkJoinTask<String>> tasks = new ArrayList<>();
+        List<DocIdAllocator> taskAllocators = new ArrayList<>();
+        for (Unit unit : reportData.getUnits()) {
+            for (SystemInfo systemInfo : unit.getSystems()) {
+                // 任务内只生成ID占位符，写出时按文档顺序分配实际ID，指定种子时结果与线程调度无关
+                DocIdAllocator taskIds = ids.deferred();
+                taskAllocators.add(taskIds);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                    StringBuilder section = new StringBuilder();
+                    appendSecondHeading(section, taskIds, systemInfo.getSystemName(), templateName);
+                    for (Vulnerability vulnerability : systemInfo.getVulnerabilities()) {
+                        appendVulnerability(section, taskIds, vulnerability, docObj);
                     }
-                    mainContent.append(thirdHeadingGen(title, templateName));
+                    return section.toString();
+                }));
+            }
+        }
 
-                    mainContent.append(fourthHeadingGen("漏洞描述", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getVulDesc(), templateName));
+        StringBuilder heading = new StringBuilder();
+        int index = 0;
+        try {
+            for (Unit unit : reportData.getUnits()) {
+                appendFirstHeading(heading, ids, unit.getUnitName(), templateName);
+                flushSection(heading, out);
+                for (int i = 0; i < unit.getSystems().size(); i++) {
+                    ids.resolve(taskAllocators.get(index), tasks.get(index).join(), out);
+                    tasks.set(index, null);
+                    taskAllocators.set(index++, null);
+                }
+            }
+        } finally {
+            for (ForkJoinTask<String> task : tasks) {
+                if (task != null) {
+                    task.cancel(false);
+                }
+            }
+        }
+    }
 
-                    mainContent.append(fourthHeadingGen("风险等级", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getRiskLevel(), templateName));
+    /**
+     * 渲染单个漏洞的标题及各项详情
+     */
+    private static void appendVulnerability(StringBuilder section, DocIdAllocator ids, Vulnerability vulnerability,
+                                            DocObj docObj) {
+        String templateName = docObj.getTemplateName();
+
+        String title;
+        if (docObj.getIsFirsrTest().equals("初测")) {
+            title = "【" + vulnerability.getRiskLevel() + "】" + vulnerability.getName();
+        } else {
+            title = "【" + vulnerability.getRiskLevel() + "】" +
+                    vulnerability.getName() + "（" + vulnerability.getIsFixed() + "）";
+        }
+        appendThirdHeading(section, ids, title, templateName);
+
+        appendFourthHeading(section, ids, "漏洞描述", templateName);
+        appendNormalText(section, ids, vulnerability.getVulDesc(), templateName);
+
+        appendFourthHeading(section, ids, "风险等级", templateName);
+        appendNormalText(section, ids, vulnerability.getRiskLevel(), templateName);
+
+        appendFourthHeading(section, ids, "漏洞危害", templateName);
+        appendNormalText(section, ids, vulnerability.getVulHazards(), templateName);
 
-                    mainContent.append(fourthHeadingGen("漏洞危害", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getVulHazards(), templateName));
+        appendFourthHeading(section, ids, "漏洞链接地址", templateName);
+        appendNormalText(section, ids, vulnerability.getVulLinks(), templateName);
 
-                    mainContent.append(fourthHeadingGen("漏洞链接地址", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getVulLinks(), templateName));
+        appendFourthHeading(section, ids, "漏洞证明", templateName);
+        appendNormalText(section, ids, vulnerability.getVulDetail(), templateName);
 
-                    mainContent.append(fourthHeadingGen("漏洞证明", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getVulDetail(), templateName));
+        appendFourthHeading(section, ids, "修复建议", templateName);
+        appendNormalText(section, ids, vulnerability.getVulFixSuggestion(), templateName);
+    }
+
+    private static int countVulnerabilities(ReportData reportData) {
+        int count = 0;
+        for (Unit unit : reportData.getUnits()) {
+            for (SystemInfo systemInfo : unit.getSystems()) {
+                count += systemInfo.getVulnerabilities().size();
+            }
+        }
+        return count;
+    }
+
+    private static void flushSection(StringBuilder section, Appendable out) throws IOException {
+        if (section.length() > 0) {
+            out.append(section);
+            section.setLength(0);
+        }
+    }
+
+    /**
+     * 一次性生成完整报告
+     * 报告主体模板与正文在打包时直接写入 document.xml 条目，不再先拼接完整文档再替换 MainContent
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @return 报告文件绝对路径
+     * @throws IOException 生成失败
+     */
+    public static String reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath) throws IOException {
+        return publishReport(out -> reportGen(docObj, reportData, docTemplatesPath, new DocIdAllocator(), true, out),
+                docObj);
+    }
+
+    /**
+     * 一次性生成完整报告并写入指定输出流，不产生任何中间文件
+     * 输出流不会被关闭，由调用方负责
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @param out docx输出流（文件、内存、网络连接等）
+     * @throws IOException 生成或写入失败
+     */
+    public static void reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath, OutputStream out)
+            throws IOException {
+        reportGen(docObj, reportData, docTemplatesPath, new DocIdAllocator(), true, out);
+    }
+
+    /**
+     * 一次性生成完整报告并写入指定通道，不产生任何中间文件
+     * 通道不会被关闭，由调用方负责
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @param channel docx输出通道（管道、套接字等）
+     * @throws IOException 生成或写入失败
+     */
+    public static void reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath,
+                                 WritableByteChannel channel) throws IOException {
+        reportGen(docObj, reportData, docTemplatesPath, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * 使用指定ID分配器一次性生成完整报告，分配器会先登记模板中已有的 paraId 与书签名
+     * 正文始终重新渲染，不使用渲染缓存，以保证ID完全由传入的分配器决定
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @param ids 本文档的ID分配器（如需可复现的输出可传入固定种子）
+     * @return 报告文件绝对路径
+     * @throws IOException 生成失败
+     */
+    public static String reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath,
+                                   DocIdAllocator ids) throws IOException {
+        return publishReport(out -> reportGen(docObj, reportData, docTemplatesPath, ids, false, out), docObj);
+    }
+
+    /**
+     * 使用指定ID分配器一次性生成完整报告并写入指定输出流，输出流不会被关闭
+     * @param docObj 文档对象
+     * @param reportData 报告数据
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @param ids 本文档的ID分配器
+     * @param out docx输出流
+     * @throws IOException 生成或写入失败
+     */
+    public static void reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath,
+                                 DocIdAllocator ids, OutputStream out) throws IOException {
+        reportGen(docObj, reportData, docTemplatesPath, ids, false, out);
+    }
 
-                    mainContent.append(fourthHeadingGen("修复建议", templateName));
-                    mainContent.append(normalTextGen(vulnerability.getVulFixSuggestion(), templateName));
+    /**
+     * 一次性生成完整报告
+     * @param useCache 是否使用正文渲染缓存；正文只取决于漏洞数据、初测/复测、报告主体模板和组件，
+     *                 仅修改封面信息后重新生成时直接复用已渲染的正文
+     */
+    private static void reportGen(DocObj docObj, ReportData reportData, String docTemplatesPath,
+                                  DocIdAllocator ids, boolean useCache, OutputStream target) throws IOException {
+        DocTemplate docTemplate = loadDocTemplate(docTemplatesPath);
+        for (String segment : docTemplate.getSegments()) {
+            ids.reserve(segment);
+        }
+        Map<String, String> values = docPlaceholderValues(docObj);
+        DocTemplate.SlotWriter mainContent = out -> mainContentGen(reportData, docObj, ids, out);
+        if (useCache) {
+            mainContent = RenderCache.cached(mainContentKey(reportData, docObj, docTemplate), mainContent);
+        }
+        Map<String, DocTemplate.SlotWriter> slotWriters = new HashMap<>();
+        slotWriters.put("MainContent", mainContent);
+
+        packageReport(docTemplatesPath, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            docTemplate.render(values, slotWriters, writer);
+            writer.flush();
+        }, target);
+    }
+
+    /**
+     * 计算报告正文的缓存键
+     * 包含正文用到的全部输入：报告主体模板（其中已有的ID决定正文ID的分配）、各组件内容、初测/复测以及漏洞数据
+     */
+    private static String mainContentKey(ReportData reportData, DocObj docObj, DocTemplate docTemplate) {
+        MessageDigest digest = MiscUtils.sha256();
+        MiscUtils.digestString(digest, "MainContent/1");
+        MiscUtils.digestString(digest, docTemplate.getFingerprint());
+        for (Component component : Component.values()) {
+            MiscUtils.digestString(digest, loadComponent(docObj.getTemplateName(), component).getFingerprint());
+        }
+        MiscUtils.digestString(digest, docObj.getIsFirsrTest());
+
+        for (Unit unit : reportData.getUnits()) {
+            MiscUtils.digestString(digest, "unit");
+            MiscUtils.digestString(digest, unit.getUnitName());
+            for (SystemInfo systemInfo : unit.getSystems()) {
+                MiscUtils.digestString(digest, "system");
+                MiscUtils.digestString(digest, systemInfo.getSystemName());
+                for (Vulnerability vulnerability : systemInfo.getVulnerabilities()) {
+                    MiscUtils.digestString(digest, "vulnerability");
+                    MiscUtils.digestString(digest, vulnerability.getName());
+                    MiscUtils.digestString(digest, vulnerability.getRiskLevel());
+                    MiscUtils.digestString(digest, vulnerability.getIsFixed());
+                    MiscUtils.digestString(digest, vulnerability.getVulDesc());
+                    MiscUtils.digestString(digest, vulnerability.getVulHazards());
+                    MiscUtils.digestString(digest, vulnerability.getVulLinks());
+                    MiscUtils.digestString(digest, vulnerability.getVulDetail());
+                    MiscUtils.digestString(digest, vulnerability.getVulFixSuggestion());
                 }
             }
         }
-        return mainContent.toString();
+        return MiscUtils.toHex(digest.digest());
     }
 
     public static String docGen(String docTemplatesPath, String docContent, DocObj docObj) throws IOException {
+        return publishReport(out -> docGen(docTemplatesPath, docContent, out), docObj);
+    }
+
+    /**
+     * 将已生成的 document.xml 内容打包为docx并写入指定输出流，输出流不会被关闭
+     * @param docTemplatesPath 样式模板路径，为null时使用默认模板
+     * @param docContent document.xml 内容
+     * @param out docx输出流
+     * @throws IOException 生成或写入失败
+     */
+    public static void docGen(String docTemplatesPath, String docContent, OutputStream out) throws IOException {
+        packageReport(docTemplatesPath, entry -> {
+            Writer writer = new OutputStreamWriter(entry, StandardCharsets.UTF_8);
+            writer.write(docContent);
+            writer.flush();
+        }, out);
+    }
+
+    /**
+     * 打包docx并写入输出流
+     * @param docTemplatesPath 样式模板路径
+     * @param documentWriter document.xml 条目内容写入器
+     * @param out docx输出流，写入完成后刷新但不关闭
+     * @throws IOException 生成失败
+     */
+    private static void packageReport(String docTemplatesPath, ZipUtils.EntryWriter documentWriter,
+                                      OutputStream out) throws IOException {
+        String path = resolveTemplateDir(docTemplatesPath);
+
+        // 模板文件使用缓存中已压缩的数据原样写入docx，仅 document.xml 替换为渲染后的内容并压缩
+        Map<String, ZipUtils.EntryWriter> overrides = new HashMap<>();
+        overrides.put(DOCUMENT_XML_ENTRY, documentWriter);
+
+        // 调用方的输出流可能不带缓冲（如套接字、通道），统一加缓冲后写入
+        OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        ZipUtils.zipTemplate(Paths.get(path), Arrays.asList(DOCX_PARTS), overrides,
+                ZipUtils.CompressionProfile.configured(), buffered);
+        buffered.flush();
+    }
+
+    /**
+     * 生成docx到本次任务独立的工作目录，完成后再移动到输出目录，避免并发任务互相覆盖或留下半成品
+     * @param generator docx内容生成器
+     * @param docObj 文档对象
+     * @return 报告文件绝对路径
+     * @throws IOException 生成失败
+     */
+    private static String publishReport(ReportWriter generator, DocObj docObj) throws IOException {
+        try (GenerationWorkspace workspace = GenerationWorkspace.create()) {
+            Path partFile = workspace.resolve("report.docx");
+            try (OutputStream out = Files.newOutputStream(partFile)) {
+                generator.write(out);
+            }
+            return moveToOutputDir(partFile, docObj);
+        }
+    }
+
+    /**
+     * 将生成完成的报告移动到输出目录，文件名冲突时重新生成随机后缀
+     * @param partFile 工作目录中的报告文件
+     * @param docObj 文档对象
+     * @return 报告文件绝对路径
+     * @throws IOException 移动失败
+     */
+    private static String moveToOutputDir(Path partFile, DocObj docObj) throws IOException {
+        Files.createDirectories(AppPaths.DOC_OUTPUT_DIR);
+
+        // 先以原子方式占用目标文件名，保证并发任务不会得到同一个报告路径
+        Path target = null;
+        for (int attempt = 0; target == null; attempt++) {
+            Path candidate = Paths.get(buildReportPath(docObj));
+            try {
+                Files.createFile(candidate);
+                target = candidate;
+            } catch (FileAlreadyExistsException e) {
+                if (attempt >= 16) {
+                    throw e;
+                }
+            }
+        }
 
-        String path = docTemplatesPath != null ? docTemplatesPath :
-                MiscUtils.getAbsolutePath(DOC_TEMPLATE_PATH);
-
-        FileUtils.cleanDirectory(MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR));
-        FileUtils.copyFolder(path, MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc");
-
-        FileUtils.overwrite(
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/word/document.xml",
-                docContent,
-                StandardCharsets.UTF_8
-        );
-
-        // 动态构建sources列表，只包含存在的路径
-        List<String> sources = new ArrayList<>();
-        String[] possibleSources = {
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/_rels",
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/customXml",
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/docProps",
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/word",
-                MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR) + "/doc/[Content_Types].xml"
-        };
-
-        for (String source : possibleSources) {
-            if (Files.exists(Paths.get(source))) {
-                sources.add(source);
-            } else {
-                LogUtils.info(DocUtils.class, "跳过不存在的路径: " + source);
+        try {
+            try {
+                Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING);
             }
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return target.toString();
+    }
+
+    /**
+     * 解析样式模板目录的绝对路径
+     * @param docTemplatesPath 样式模板路径（相对或绝对），为null时使用默认模板
+     * @return 绝对路径
+     */
+    private static String resolveTemplateDir(String docTemplatesPath) {
+        if (docTemplatesPath == null) {
+            return AppPaths.DOC_TEMPLATE_PATH.toString();
         }
+        if (new File(docTemplatesPath).isAbsolute()) {
+            return docTemplatesPath;
+        }
+        return MiscUtils.getAbsolutePath(docTemplatesPath);
+    }
 
-        String reportPath = MiscUtils.getAbsolutePath(DOC_OUTPUT_DIR) + File.separator +
+    /**
+     * 生成报告输出路径
+     * @param docObj 文档对象
+     * @return 报告文件绝对路径
+     */
+    private static String buildReportPath(DocObj docObj) {
+        return AppPaths.DOC_OUTPUT_DIR + File.separator +
                 docObj.getCustomerName() +
                 ("复测".equals(docObj.getIsFirsrTest()) ? "渗透测试复测报告" : "渗透测试报告") +
                 docObj.getReportYear() +
@@ -277,10 +666,5 @@ public class DocUtils {
                 String.format("%02d", docObj.getReportDay()) + "_" +
                 MiscUtils.getRandomString(4) +
                 ".docx";
-
-        ZipUtils.zipMultiple(sources, reportPath);
-        FileUtils.cleanDirectory(MiscUtils.getAbsolutePath(WORKSPACE_TEMP_DIR));
-
-        return reportPath;
     }
 }
@@ -1,14 +1,35 @@
 package com.y5neko.ssrtools.utils;
 
+import org.apache.commons.io.IOUtils;
+
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import java.io.File;
 
@@ -16,11 +37,53 @@ import java.io.File;
  * 文件工具类
  */
 public class FileUtils {
+    // 超过该大小的文件使用内存映射读取
+    private static final long MMAP_THRESHOLD = 8L * 1024 * 1024;
+
+    // 流式读取的缓冲区大小
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 读取文件为字符串（UTF-8），一次性读取全部字节，内容与文件完全一致（保留原有换行符）
+     * @param filePath 文件路径
+     * @return 文件内容
+     * @throws IOException 读取失败
+     */
+    public static String readString(String filePath) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(filePath)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取文件为字符序列（UTF-8），大文件使用内存映射直接解码，不额外复制字节数组
+     * 适合只需扫描内容、无需 String 的场景
+     * @param filePath 文件路径
+     * @return 文件内容
+     * @throws IOException 读取失败
+     */
+    public static CharSequence readChars(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        long size = Files.size(path);
+        if (size < MMAP_THRESHOLD) {
+            return readString(filePath);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(buffer);
+        }
+    }
+
     /**
      * 读取文件为字符串
+     * 按行读取后以系统换行符重新拼接，会丢失原有换行符和末尾换行，读取失败时返回空字符串
      * @param filePath 文件路径
      * @return 字符串
+     * @deprecated 使用 {@link #readString(String)} 替代
      */
+    @Deprecated
     public static String readFile(String filePath) {
         StringBuilder content = new StringBuilder();
 
@@ -54,35 +117,223 @@ public class FileUtils {
      * @throws IOException 如果复制过程中出错
      */
     public static void copyFolder(String sourcePath, String targetPath) throws IOException {
+        copyFolder(sourcePath, targetPath, new CopyOptions());
+    }
+
+    /**
+     * 按指定选项复制文件夹
+     * 先遍历源目录并创建全部子目录，再逐个（或在线程池中并行）复制文件
+     * @param sourcePath 源文件夹路径
+     * @param targetPath 目标文件夹路径
+     * @param options 复制选项
+     * @return 实际复制的文件数，不含因内容相同而跳过或复制失败的文件
+     * @throws IOException 创建目录失败，或开启 stopOnError 时复制文件失败
+     */
+    public static int copyFolder(String sourcePath, String targetPath, CopyOptions options) throws IOException {
         Path source = Paths.get(sourcePath);
 
         // 如果源目录不存在，则跳过
         if (!Files.exists(source)) {
             LogUtils.info(FileUtils.class, "源目录不存在，跳过复制: " + sourcePath);
-            return;
+            return 0;
         }
 
         Path target = Paths.get(targetPath);
+        Files.createDirectories(target);
 
-        // 如果目标目录不存在，则创建
-        if (!Files.exists(target)) {
-            Files.createDirectories(target);
-        }
-
-        // 遍历源文件夹
-        Files.walk(source)
-                .forEach(src -> {
-                    try {
-                        Path dest = target.resolve(source.relativize(src));
-                        if (Files.isDirectory(src)) {
-                            Files.createDirectories(dest); // 创建子目录
-                        } else {
-                            Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING); // 复制文件
-                        }
-                    } catch (IOException e) {
-                        LogUtils.error(FileUtils.class, "复制文件失败：" + e.getMessage());
+        // 遍历源文件夹，先创建目录结构并收集待复制文件
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path relative = source.relativize(dir);
+                if (!dir.equals(source) && options.filter != null && !options.filter.test(relative)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(relative.toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (options.filter == null || options.filter.test(source.relativize(file))) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        int total = files.size();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger copied = new AtomicInteger();
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Path src : files) {
+            Path dest = target.resolve(source.relativize(src).toString());
+            Callable<Void> task = () -> {
+                try {
+                    if (copyFile(src, dest, options)) {
+                        copied.incrementAndGet();
                     }
-                });
+                } catch (IOException e) {
+                    if (options.stopOnError) {
+                        throw e;
+                    }
+                    // 默认记录失败的文件并继续复制其余文件
+                    LogUtils.error(FileUtils.class, "复制文件失败：" + e.getMessage());
+                }
+                if (options.listener != null) {
+                    options.listener.onProgress(done.incrementAndGet(), total, dest);
+                }
+                return null;
+            };
+            if (options.parallel && total > 1) {
+                futures.add(ForkJoinPool.commonPool().submit(task));
+            } else {
+                call(task);
+            }
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("复制被中断");
+            } catch (ExecutionException e) {
+                for (Future<Void> pending : futures) {
+                    pending.cancel(false);
+                }
+                Throwable cause = e.getCause();
+                // ForkJoinPool 执行 Callable 时会把受检异常包装为（可能多层）RuntimeException
+                Throwable unwrapped = cause;
+                while (unwrapped instanceof RuntimeException && unwrapped.getCause() != null) {
+                    unwrapped = unwrapped.getCause();
+                }
+                if (unwrapped instanceof IOException) {
+                    cause = unwrapped;
+                }
+                throw cause instanceof IOException ? (IOException) cause :
+                        new IOException("复制文件失败：" + cause.getMessage(), cause);
+            }
+        }
+        return copied.get();
+    }
+
+    private static void call(Callable<Void> task) throws IOException {
+        try {
+            task.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 复制单个文件
+     * @return 是否实际写入了目标文件（内容相同而跳过时返回false）
+     */
+    private static boolean copyFile(Path src, Path dest, CopyOptions options) throws IOException {
+        if (options.skipIdentical && isSameContent(src, dest)) {
+            return false;
+        }
+        Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * 判断两个文件大小和内容是否完全相同
+     */
+    private static boolean isSameContent(Path a, Path b) throws IOException {
+        if (!Files.isRegularFile(b) || Files.size(a) != Files.size(b)) {
+            return false;
+        }
+        if (Files.isSameFile(a, b)) {
+            return true;
+        }
+        try (InputStream inA = Files.newInputStream(a); InputStream inB = Files.newInputStream(b)) {
+            byte[] bufferA = new byte[READ_BUFFER_SIZE];
+            byte[] bufferB = new byte[READ_BUFFER_SIZE];
+            while (true) {
+                int lengthA = IOUtils.read(inA, bufferA);
+                int lengthB = IOUtils.read(inB, bufferB);
+                if (lengthA != lengthB) {
+                    return false;
+                }
+                if (lengthA == 0) {
+                    return true;
+                }
+                for (int i = 0; i < lengthA; i++) {
+                    if (bufferA[i] != bufferB[i]) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 复制进度回调
+     */
+    public interface CopyListener {
+        /**
+         * 每完成一个文件调用一次，并行复制时可能在不同线程中调用
+         * @param done 已完成文件数
+         * @param total 文件总数
+         * @param file 刚完成的目标文件
+         */
+        void onProgress(int done, int total, Path file);
+    }
+
+    /**
+     * 文件夹复制选项
+     */
+    public static class CopyOptions {
+        private boolean parallel = true;
+        private boolean stopOnError;
+        private boolean skipIdentical;
+        private Predicate<Path> filter;
+        private CopyListener listener;
+
+        /**
+         * 是否在线程池中并行复制文件，默认开启
+         */
+        public CopyOptions parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * 任一文件复制失败时是否立即停止并抛出异常，默认关闭（记录失败的文件并继续复制其余文件）
+         */
+        public CopyOptions stopOnError(boolean stopOnError) {
+            this.stopOnError = stopOnError;
+            return this;
+        }
+
+        /**
+         * 目标文件已存在且大小、内容均相同时跳过，默认关闭
+         */
+        public CopyOptions skipIdentical(boolean skipIdentical) {
+            this.skipIdentical = skipIdentical;
+            return this;
+        }
+
+        /**
+         * 过滤条件，参数为相对于源目录的路径，返回false的文件或目录（含其下全部内容）不复制
+         */
+        public CopyOptions filter(Predicate<Path> filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        /**
+         * 复制进度回调
+         */
+        public CopyOptions listener(CopyListener listener) {
+            this.listener = listener;
+            return this;
+        }
     }
 
     // 清空文件夹
@@ -98,31 +349,48 @@ public class FileUtils {
      */
     public static void overwrite(String filePath, String content, Charset charset)
             throws IOException {
-        Path path = Paths.get(filePath);
-
-        // 检查父目录是否存在
-        Path parent = path.getParent();
-        if (parent != null && !Files.exists(parent)) {
-            Files.createDirectories(parent);
+        try {
+            writeAtomically(Paths.get(filePath), content.getBytes(charset));
+        } catch (IOException e) {
+            LogUtils.error(FileUtils.class, "覆盖文件失败：" + e.getMessage());
         }
+    }
 
-        // 通过临时文件原子操作
-        Path tempFile = null;
-        if (parent != null) {
-            tempFile = Files.createTempFile(parent, "temp", ".tmp");
-        }
+    /**
+     * 原子写入文件
+     * 先写入同目录下的临时文件并 fsync，再重命名覆盖目标文件，任意时刻崩溃目标文件要么是旧内容要么是新内容
+     * @param path 文件路径
+     * @param content 文件内容
+     * @throws IOException 写入失败（此时目标文件保持不变）
+     */
+    public static void writeAtomically(Path path, byte[] content) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+
+        Path tempFile = Files.createTempFile(parent, "." + target.getFileName(), ".tmp");
         try {
-            if (tempFile != null) {
-                Files.write(tempFile, content.getBytes(charset));
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
             }
-            if (tempFile != null) {
-                Files.move(tempFile, path,
-                        StandardCopyOption.REPLACE_EXISTING,
-                        StandardCopyOption.ATOMIC_MOVE);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
             }
         } catch (IOException e) {
             Files.deleteIfExists(tempFile); // 清理临时文件
-            LogUtils.error(FileUtils.class, "覆盖文件失败：" + e.getMessage());
+            throw e;
+        }
+
+        // 同步目录项，保证重命名本身落盘；Windows 不支持打开目录，忽略即可
+        try (FileChannel dir = FileChannel.open(parent, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
         }
     }
 }
@@ -0,0 +1,61 @@
+package com.y5neko.ssrtools.utils;
+
+import com.y5neko.ssrtools.config.AppPaths;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 单次生成任务的独立工作目录
+ * 每次生成在 workspace/temp 下创建唯一子目录，关闭时删除，多个生成任务可并发执行互不干扰
+ * 用法：try (GenerationWorkspace workspace = GenerationWorkspace.create()) { ... }
+ */
+public class GenerationWorkspace implements AutoCloseable {
+    private final Path dir;
+
+    private GenerationWorkspace(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 在 workspace/temp 下创建新的独立工作目录
+     * @return 工作目录
+     * @throws IOException 创建失败
+     */
+    public static GenerationWorkspace create() throws IOException {
+        Path base = AppPaths.WORKSPACE_TEMP_DIR;
+        Files.createDirectories(base);
+        return new GenerationWorkspace(Files.createTempDirectory(base, "job-"));
+    }
+
+    /**
+     * 获取工作目录
+     * @return 工作目录路径
+     */
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * 在工作目录下解析文件路径
+     * @param name 文件名
+     * @return 文件路径
+     */
+    public Path resolve(String name) {
+        return dir.resolve(name);
+    }
+
+    /**
+     * 删除工作目录及其中的全部文件
+     */
+    @Override
+    public void close() {
+        try {
+            org.apache.commons.io.FileUtils.deleteDirectory(dir.toFile());
+        } catch (IOException e) {
+            LogUtils.warn(GenerationWorkspace.class, "清理工作目录失败：" + dir + " " + e.getMessage());
+            org.apache.commons.io.FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.y5neko.ssrtools.utils;
 
-import com.y5neko.ssrtools.GUI;
+import com.y5neko.ssrtools.config.AppPaths;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 /**
@@ -10,7 +13,6 @@ import java.security.SecureRandom;
  */
 public class MiscUtils {
     private static final String HEX_CHARS = "0123456789ABCDEF";
-    private static final String NUM_CHARS = "0123456789";
     private static final SecureRandom random = new SecureRandom();
 
     // 通过参数传入目录数组初始化程序所需目录
@@ -23,67 +25,57 @@ public class MiscUtils {
         }
     }
 
-    // 生成paraID
-    public static String getParaID() {
-        StringBuilder sb = new StringBuilder(8);
-        for (int i = 0; i < 8; i++) {
+    // 生成随机字符串
+    public static String getRandomString(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
             sb.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
         }
         return sb.toString();
     }
 
-    // 生成TocName
-    public static String getTocName() {
-        StringBuilder sb = new StringBuilder(9);
-        for (int i = 0; i < 8; i++) {
-            sb.append(NUM_CHARS.charAt(random.nextInt(NUM_CHARS.length())));
+    // 创建SHA-256摘要
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有Java平台都必须支持SHA-256
+            throw new IllegalStateException(e);
         }
-        return "_Toc" + sb;
     }
 
-    // 生成随机字符串
-    public static String getRandomString(int length) {
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            sb.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
+    // 向摘要追加字符串（UTF-8，带长度前缀，避免相邻字符串拼接后产生歧义），null与空字符串区分
+    public static void digestString(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
         }
-        return sb.toString();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(new byte[]{
+                (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8), (byte) bytes.length
+        });
+        digest.update(bytes);
+    }
+
+    // 字节数组转十六进制字符串（小写）
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            chars[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(chars);
     }
 
     /**
      * 获取基于 jar 包的相对路径的绝对路径(仅相对路径可用，绝对路径会报错)
+     * 程序根目录只在启动时解析一次，见 {@link AppPaths}
      * @param relativePath 基于 jar 包的相对路径
      * @return 绝对路径
      */
     public static String getAbsolutePath(String relativePath) {
-        if (relativePath.startsWith("/")) {
-            relativePath = relativePath.substring(1);
-        }
-
-        try {
-            String path = GUI.class
-                    .getProtectionDomain()
-                    .getCodeSource()
-                    .getLocation()
-                    .toURI()
-                    .getPath();
-
-            File location = new File(path);
-
-            String baseDir;
-            if (location.isFile()) {
-                // 生产环境
-                baseDir = location.getParentFile().getAbsolutePath();
-            } else {
-                // 开发环境
-                baseDir = System.getProperty("user.dir");
-            }
-
-            return new File(baseDir, relativePath).getAbsolutePath();
-        } catch (Exception e) {
-            LogUtils.error(MiscUtils.class, "获取绝对路径失败：" + e.getMessage());
-            return "路径读取失败: " + e.getMessage();
-        }
+        return AppPaths.resolve(relativePath).toString();
     }
 
     public static void main(String[] args) {
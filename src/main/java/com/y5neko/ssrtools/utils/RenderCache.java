@@ -0,0 +1,223 @@
+package com.y5neko.ssrtools.utils;
+
+import com.y5neko.ssrtools.config.AppPaths;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.y5neko.ssrtools.config.GlobalConfig.RENDER_CACHE_MAX_ENTRIES;
+
+/**
+ * 报告正文渲染缓存
+ * 以输入内容的哈希为键，将渲染结果保存在 workspace/cache/render_cache 下；
+ * 命中时直接把缓存内容写入输出，未命中时渲染结果同时写入输出与缓存文件。
+ * 键中已包含模板与组件内容，模板或组件被替换后旧条目不会再命中，由数量上限按最近使用顺序淘汰
+ */
+public class RenderCache {
+    private static final String SUFFIX = ".xml";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private RenderCache() {
+    }
+
+    /**
+     * 包装内容写入器，使其结果按键缓存
+     * @param key 缓存键（由全部输入内容计算出的哈希，需可作为文件名）
+     * @param renderer 未命中时使用的写入器
+     * @return 带缓存的写入器；缓存已关闭时直接返回 renderer
+     */
+    public static DocTemplate.SlotWriter cached(String key, DocTemplate.SlotWriter renderer) {
+        if (RENDER_CACHE_MAX_ENTRIES <= 0) {
+            return renderer;
+        }
+        return out -> {
+            Path dir = AppPaths.RENDER_CACHE_DIR;
+            Path file = dir.resolve(key + SUFFIX);
+            if (copyCached(file, out)) {
+                LogUtils.debug(RenderCache.class, "命中正文渲染缓存: " + key);
+                return;
+            }
+            renderAndStore(dir, file, key, renderer, out);
+        };
+    }
+
+    /**
+     * 将缓存文件内容写入输出
+     * @return 缓存文件不存在时返回false，此时尚未向输出写入任何内容
+     */
+    private static boolean copyCached(Path file, Appendable out) throws IOException {
+        Reader reader;
+        try {
+            reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (Reader in = reader) {
+            char[] buffer = new char[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                if (out instanceof Writer) {
+                    ((Writer) out).write(buffer, 0, length);
+                } else {
+                    out.append(CharBuffer.wrap(buffer, 0, length));
+                }
+            }
+        }
+
+        // 更新修改时间，淘汰时按最近使用顺序保留
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+        }
+        return true;
+    }
+
+    /**
+     * 渲染内容并同时写入缓存临时文件，渲染成功后重命名为正式缓存文件
+     * 缓存文件写入失败只记录日志，不影响本次输出
+     */
+    private static void renderAndStore(Path dir, Path file, String key, DocTemplate.SlotWriter renderer,
+                                       Appendable out) throws IOException {
+        Path tempFile;
+        Writer cacheWriter;
+        try {
+            Files.createDirectories(dir);
+            tempFile = Files.createTempFile(dir, key, ".tmp");
+            cacheWriter = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(tempFile), StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            LogUtils.warn(RenderCache.class, "创建正文渲染缓存失败：" + e.getMessage());
+            renderer.write(out);
+            return;
+        }
+
+        TeeAppendable tee = new TeeAppendable(out, cacheWriter);
+        try {
+            renderer.write(tee);
+            tee.closeCache();
+            if (!tee.cacheFailed) {
+                commit(tempFile, file, key);
+                evict(dir);
+            }
+        } finally {
+            tee.closeCache();
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void commit(Path tempFile, Path file, String key) {
+        try {
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LogUtils.debug(RenderCache.class, "已缓存报告正文: " + key);
+        } catch (IOException e) {
+            LogUtils.warn(RenderCache.class, "保存正文渲染缓存失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存条目超出上限时删除最久未使用的条目
+     */
+    private static void evict(Path dir) {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+            }
+            if (entries.size() <= RENDER_CACHE_MAX_ENTRIES) {
+                return;
+            }
+            entries.sort(Comparator.comparingLong(entry -> entry.toFile().lastModified()));
+            for (int i = 0; i < entries.size() - RENDER_CACHE_MAX_ENTRIES; i++) {
+                Files.deleteIfExists(entries.get(i));
+            }
+        } catch (IOException e) {
+            LogUtils.warn(RenderCache.class, "清理正文渲染缓存失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 同时写入输出目标和缓存文件，缓存文件写入失败后只继续写输出目标
+     */
+    private static class TeeAppendable implements Appendable {
+        private final Appendable out;
+        private final Writer cache;
+        private boolean cacheFailed;
+        private boolean cacheClosed;
+
+        TeeAppendable(Appendable out, Writer cache) {
+            this.out = out;
+            this.cache = cache;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            out.append(csq, start, end);
+            if (!cacheFailed) {
+                try {
+                    cache.append(csq, start, end);
+                } catch (IOException e) {
+                    onCacheError(e);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            out.append(c);
+            if (!cacheFailed) {
+                try {
+                    cache.append(c);
+                } catch (IOException e) {
+                    onCacheError(e);
+                }
+            }
+            return this;
+        }
+
+        private void onCacheError(IOException e) {
+            cacheFailed = true;
+            LogUtils.warn(RenderCache.class, "写入正文渲染缓存失败：" + e.getMessage());
+        }
+
+        void closeCache() {
+            if (cacheClosed) {
+                return;
+            }
+            cacheClosed = true;
+            try {
+                cache.close();
+            } catch (IOException e) {
+                onCacheError(e);
+            }
+        }
+    }
+}
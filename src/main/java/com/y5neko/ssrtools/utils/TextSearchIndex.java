@@ -0,0 +1,395 @@
+package com.y5neko.ssrtools.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * 多字段全文检索索引
+ * 英文、数字按单词的各个后缀建立倒排索引（查询时按前缀匹配，即匹配单词的任意部分），中文按单字和相邻两字建立倒排索引；
+ * 查询以空白分隔多个关键词，全部关键词均出现在任一字段中的条目才会命中，
+ * 结果按 字段权重 × 出现次数 × 关键词稀有程度 排序。
+ * 支持逐条增加、更新和删除。非线程安全，可在后台线程建立后交给其他线程使用。
+ * @param <T> 被索引的条目类型
+ */
+public class TextSearchIndex<T> {
+    // 同一字段内重复出现的次数最多计算到该值，避免长文本刷分
+    private static final int MAX_TERM_FREQUENCY = 5;
+    // 超过该长度的单词（如编码后的数据）不再按后缀索引，只索引整个单词
+    private static final int MAX_SUFFIX_WORD_LENGTH = 32;
+
+    private final double[] weights;
+    private final Map<T, Document<T>> documents = new HashMap<>();
+    private final Map<Integer, Document<T>> documentsById = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // 全部单词后缀，用于前缀查找
+    private final TreeSet<String> words = new TreeSet<>();
+    private int nextId;
+
+    /**
+     * 创建索引
+     * @param weights 各字段的权重，字段顺序与 put 时传入的顺序一致
+     */
+    public TextSearchIndex(double... weights) {
+        this.weights = weights.clone();
+    }
+
+    /**
+     * 加入或更新条目，更新时沿用原有编号
+     * @param item 条目
+     * @param fields 各字段文本，可为null
+     */
+    public void put(T item, String... fields) {
+        Document<T> previous = documents.get(item);
+        int id = previous != null ? previous.id : nextId++;
+        remove(item);
+
+        String[] texts = new String[weights.length];
+        Set<String> terms = new HashSet<>();
+        for (int i = 0; i < texts.length; i++) {
+            String field = i < fields.length && fields[i] != null ? fields[i] : "";
+            texts[i] = field.toLowerCase(Locale.ROOT);
+            tokenize(texts[i], terms::add);
+        }
+
+        Document<T> document = new Document<>(id, item, texts, terms.toArray(new String[0]));
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                list = new Postings();
+                postings.put(term, list);
+                if (!isCjk(term.charAt(0))) {
+                    words.add(term);
+                }
+            }
+            list.add(document.id);
+        }
+        documents.put(item, document);
+        documentsById.put(document.id, document);
+    }
+
+    /**
+     * 删除条目
+     * @param item 条目
+     */
+    public void remove(T item) {
+        Document<T> document = documents.remove(item);
+        if (document == null) {
+            return;
+        }
+        documentsById.remove(document.id);
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(document.id) && list.size == 0) {
+                postings.remove(term);
+                words.remove(term);
+            }
+        }
+    }
+
+    /**
+     * 检索
+     * @param query 查询内容，以空白分隔多个关键词，忽略大小写
+     * @return 按相关度从高到低排列的条目
+     */
+    public List<T> search(String query) {
+        List<String> keywords = keywords(query);
+        if (keywords.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        BitSet matched = null;
+        List<BitSet> keywordMatches = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            BitSet hits = verify(candidates(keyword), keyword);
+            keywordMatches.add(hits);
+            if (matched == null) {
+                matched = (BitSet) hits.clone();
+            } else {
+                matched.and(hits);
+            }
+            if (matched.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Scored<T>> scored = new ArrayList<>(matched.cardinality());
+        for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) {
+            Document<T> document = documentsById.get(id);
+            double score = 0;
+            for (int k = 0; k < keywords.size(); k++) {
+                // 命中条目越少的关键词越稀有，权重越高
+                double idf = Math.log(1 + (double) documents.size() / keywordMatches.get(k).cardinality());
+                score += idf * document.score(keywords.get(k), weights);
+            }
+            scored.add(new Scored<>(document, score));
+        }
+        scored.sort((a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score)
+                : Integer.compare(a.document.id, b.document.id));
+
+        List<T> result = new ArrayList<>(scored.size());
+        for (Scored<T> entry : scored) {
+            result.add(entry.document.item);
+        }
+        return result;
+    }
+
+    /**
+     * 计算文本中需要高亮的区间
+     * @param text 文本
+     * @param query 查询内容
+     * @return 按位置排列且互不重叠的区间，每项为 {起始位置, 结束位置（不含）}
+     */
+    public static List<int[]> highlightRanges(String text, String query) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<int[]> ranges = new ArrayList<>();
+        for (String keyword : keywords(query)) {
+            for (int i = 0; i + keyword.length() <= text.length(); i++) {
+                if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                    ranges.add(new int[]{i, i + keyword.length()});
+                }
+            }
+        }
+        if (ranges.isEmpty()) {
+            return ranges;
+        }
+
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<int[]> merged = new ArrayList<>();
+        int[] current = ranges.get(0);
+        for (int[] range : ranges) {
+            if (range[0] <= current[1]) {
+                current[1] = Math.max(current[1], range[1]);
+            } else {
+                merged.add(current);
+                current = range;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static List<String> keywords(String query) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        List<String> keywords = new ArrayList<>();
+        for (String keyword : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!keyword.isEmpty() && !keywords.contains(keyword)) {
+                keywords.add(keyword);
+            }
+        }
+        return keywords;
+    }
+
+    /**
+     * 根据倒排索引取得可能包含关键词的条目：单词按后缀的前缀匹配，中文按单字或全部相邻两字匹配
+     */
+    private BitSet candidates(String keyword) {
+        List<String> wordTerms = new ArrayList<>();
+        List<String> exactTerms = new ArrayList<>();
+        forEachToken(keyword, wordTerms::add, exactTerms::add);
+
+        BitSet result = null;
+        for (String word : wordTerms) {
+            BitSet hits = new BitSet();
+            for (String term : words.subSet(word, word + Character.MAX_VALUE)) {
+                postings.get(term).addTo(hits);
+            }
+            result = intersect(result, hits);
+        }
+        for (String term : exactTerms) {
+            BitSet hits = new BitSet();
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.addTo(hits);
+            }
+            result = intersect(result, hits);
+        }
+
+        if (result == null) {
+            // 关键词只含符号，无法使用索引，逐条校验
+            result = new BitSet();
+            for (Integer id : documentsById.keySet()) {
+                result.set(id);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet intersect(BitSet current, BitSet hits) {
+        if (current == null) {
+            return hits;
+        }
+        current.and(hits);
+        return current;
+    }
+
+    /**
+     * 排除索引命中但关键词并未原样出现的条目（如两字词分别出现在不同位置）
+     */
+    private BitSet verify(BitSet candidates, String keyword) {
+        BitSet verified = new BitSet();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Document<T> document = documentsById.get(id);
+            if (document != null && document.contains(keyword)) {
+                verified.set(id);
+            }
+        }
+        return verified;
+    }
+
+    /**
+     * 切分已转换为小写的文本，得到建立索引用的词
+     */
+    private static void tokenize(String text, Consumer<String> sink) {
+        forEachToken(text, word -> {
+            sink.accept(word);
+            if (word.length() <= MAX_SUFFIX_WORD_LENGTH) {
+                for (int i = 1; i < word.length(); i++) {
+                    sink.accept(word.substring(i));
+                }
+            }
+        }, sink);
+        // 中文单字同样建立索引，单字查询无需遍历
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                sink.accept(String.valueOf(c));
+            }
+        }
+    }
+
+    /**
+     * 切分文本：连续的字母数字作为一个单词，连续的中文按相邻两字切分（只有一个字时为单字）
+     */
+    private static void forEachToken(String text, Consumer<String> words, Consumer<String> grams) {
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < text.length() && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    grams.accept(text.substring(start, i));
+                }
+                for (int j = start; j + 1 < i; j++) {
+                    grams.accept(text.substring(j, j + 2));
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < text.length() && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                words.accept(text.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        return c >= '\u2e80' && Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private static final class Document<T> {
+        final int id;
+        final T item;
+        final String[] texts;
+        final String[] terms;
+
+        Document(int id, T item, String[] texts, String[] terms) {
+            this.id = id;
+            this.item = item;
+            this.texts = texts;
+            this.terms = terms;
+        }
+
+        boolean contains(String keyword) {
+            for (String text : texts) {
+                if (text.contains(keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 关键词在各字段中的加权出现次数，首个字段（名称）以关键词开头时额外加分
+         */
+        double score(String keyword, double[] weights) {
+            double score = 0;
+            for (int i = 0; i < texts.length; i++) {
+                int count = 0;
+                int index = texts[i].indexOf(keyword);
+                while (index >= 0 && count < MAX_TERM_FREQUENCY) {
+                    count++;
+                    index = texts[i].indexOf(keyword, index + keyword.length());
+                }
+                score += weights[i] * count;
+            }
+            if (texts.length > 0 && texts[0].startsWith(keyword)) {
+                score += weights[0] * (texts[0].length() == keyword.length() ? 4 : 2);
+            }
+            return score;
+        }
+    }
+
+    private static final class Scored<T> {
+        final Document<T> document;
+        final double score;
+
+        Scored(Document<T> document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 有序的条目编号列表；新条目编号最大，直接追加在末尾，更新的条目沿用原编号，按顺序插入
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int index = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(ids[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.y5neko.ssrtools.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 漏洞名称检索索引
+ * 对小写名称及其拼音首字母建立单字与双字索引，查询时只校验候选名称，无需遍历全部漏洞；
+ * 结果按 完全匹配 > 前缀匹配 > 包含匹配 > 拼音首字母前缀 > 拼音首字母包含 排序，只返回前 limit 条。
+ * 创建后不可变，可在后台线程中查询。
+ */
+public class VulnNameIndex {
+    // 匹配类型，数值越小排名越靠前
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int CONTAINS = 2;
+    private static final int PINYIN_PREFIX = 3;
+    private static final int PINYIN_CONTAINS = 4;
+
+    // GB2312 一级汉字按拼音排序，以下为各声母首字的区位码
+    private static final int[] GB2312_BOUNDARIES = {
+            1601, 1637, 1833, 2078, 2274, 2302, 2433, 2594, 2787, 3106, 3212, 3472,
+            3635, 3722, 3730, 3858, 4027, 4086, 4390, 4558, 4684, 4925, 5249, 5590
+    };
+    private static final char[] GB2312_INITIALS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] names;
+    private final String[] keys;
+    private final String[] initials;
+    private final Map<Integer, int[]> nameGrams;
+    private final Map<Integer, int[]> initialGrams;
+
+    /**
+     * 建立索引
+     * @param names 漏洞名称（重复及空名称会被忽略）
+     * @param pinyin 是否建立拼音首字母索引
+     */
+    public VulnNameIndex(Collection<String> names, boolean pinyin) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                distinct.add(name);
+            }
+        }
+        this.names = distinct.toArray(new String[0]);
+        this.keys = new String[this.names.length];
+        this.initials = pinyin ? new String[this.names.length] : null;
+
+        CharsetEncoder encoder = pinyin ? gb2312Encoder() : null;
+        for (int i = 0; i < this.names.length; i++) {
+            keys[i] = this.names[i].toLowerCase(Locale.ROOT);
+            if (initials != null) {
+                initials[i] = toInitials(keys[i], encoder);
+            }
+        }
+        this.nameGrams = buildGrams(keys);
+        this.initialGrams = initials != null ? buildGrams(initials) : Collections.emptyMap();
+    }
+
+    /**
+     * 已索引的名称数量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 检索名称
+     * @param query 输入内容（忽略大小写及首尾空白）
+     * @param limit 最多返回的条数
+     * @return 按匹配程度排序的名称
+     */
+    public List<String> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 大顶堆保留当前最好的 limit 条，堆顶为其中排名最靠后的一条
+        Comparator<Match> order = Comparator.<Match>comparingInt(m -> m.rank)
+                .thenComparingInt(m -> m.position)
+                .thenComparingInt(m -> names[m.id].length())
+                .thenComparing(m -> names[m.id]);
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, order.reversed());
+        Map<Integer, Match> matches = new HashMap<>();
+
+        for (int id : candidates(nameGrams, normalized)) {
+            int position = keys[id].indexOf(normalized);
+            if (position >= 0) {
+                int rank = keys[id].length() == normalized.length() ? EXACT : position == 0 ? PREFIX : CONTAINS;
+                matches.put(id, new Match(id, rank, position));
+            }
+        }
+        if (initials != null && isAsciiAlphanumeric(normalized)) {
+            for (int id : candidates(initialGrams, normalized)) {
+                if (matches.containsKey(id)) {
+                    continue;
+                }
+                int position = initials[id].indexOf(normalized);
+                if (position >= 0) {
+                    matches.put(id, new Match(id, position == 0 ? PINYIN_PREFIX : PINYIN_CONTAINS, position));
+                }
+            }
+        }
+
+        for (Match match : matches.values()) {
+            top.add(match);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        Match[] sorted = top.toArray(new Match[0]);
+        Arrays.sort(sorted, order);
+        List<String> result = new ArrayList<>(sorted.length);
+        for (Match match : sorted) {
+            result.add(names[match.id]);
+        }
+        return result;
+    }
+
+    /**
+     * 根据单字或双字索引取得可能包含 query 的名称编号
+     */
+    private static int[] candidates(Map<Integer, int[]> grams, String query) {
+        if (query.length() == 1) {
+            int[] postings = grams.get(gram(0, query.charAt(0)));
+            return postings != null ? postings : EMPTY;
+        }
+
+        int[][] lists = new int[query.length() - 1][];
+        for (int i = 0; i < lists.length; i++) {
+            int[] postings = grams.get(gram(query.charAt(i), query.charAt(i + 1)));
+            if (postings == null) {
+                return EMPTY;
+            }
+            lists[i] = postings;
+        }
+        // 从最短的列表开始求交集
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Map<Integer, int[]> buildGrams(String[] texts) {
+        Map<Integer, List<Integer>> building = new HashMap<>();
+        for (int id = 0; id < texts.length; id++) {
+            String text = texts[id];
+            for (int i = 0; i < text.length(); i++) {
+                addPosting(building, gram(0, text.charAt(i)), id);
+                if (i + 1 < text.length()) {
+                    addPosting(building, gram(text.charAt(i), text.charAt(i + 1)), id);
+                }
+            }
+        }
+
+        Map<Integer, int[]> grams = new HashMap<>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<Integer, List<Integer>> entry : building.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            int[] postings = new int[ids.size()];
+            for (int i = 0; i < postings.length; i++) {
+                postings[i] = ids.get(i);
+            }
+            grams.put(entry.getKey(), postings);
+        }
+        return grams;
+    }
+
+    private static void addPosting(Map<Integer, List<Integer>> building, int gram, int id) {
+        List<Integer> ids = building.computeIfAbsent(gram, key -> new ArrayList<>());
+        // 编号递增加入，列表天然有序，只需跳过同一名称中的重复字
+        if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+            ids.add(id);
+        }
+    }
+
+    private static int gram(int first, int second) {
+        return (first << 16) | second;
+    }
+
+    private static boolean isAsciiAlphanumeric(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将名称转换为拼音首字母，常用汉字（GB2312一级字）替换为首字母，其余字符保持不变
+     */
+    private static String toInitials(String text, CharsetEncoder encoder) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char initial = c >= 0x4E00 && c <= 0x9FA5 ? initialOf(c, encoder) : 0;
+            builder.append(initial != 0 ? initial : c);
+        }
+        return builder.toString();
+    }
+
+    private static char initialOf(char c, CharsetEncoder encoder) {
+        if (encoder == null) {
+            return 0;
+        }
+        try {
+            ByteBuffer bytes = encoder.encode(CharBuffer.wrap(new char[]{c}));
+            if (bytes.remaining() != 2) {
+                return 0;
+            }
+            int code = ((bytes.get(0) & 0xFF) - 160) * 100 + ((bytes.get(1) & 0xFF) - 160);
+            for (int i = 0; i < GB2312_INITIALS.length; i++) {
+                if (code >= GB2312_BOUNDARIES[i] && code < GB2312_BOUNDARIES[i + 1]) {
+                    return GB2312_INITIALS[i];
+                }
+            }
+        } catch (CharacterCodingException e) {
+            // 不在GB2312中的字保持原样
+        }
+        return 0;
+    }
+
+    private static CharsetEncoder gb2312Encoder() {
+        try {
+            return Charset.forName("GB2312").newEncoder();
+        } catch (IllegalArgumentException e) {
+            LogUtils.warn(VulnNameIndex.class, "当前运行环境不支持GB2312编码，拼音首字母匹配不可用");
+            return null;
+        }
+    }
+
+    private static final class Match {
+        final int id;
+        final int rank;
+        final int position;
+
+        Match(int id, int rank, int position) {
+            this.id = id;
+            this.rank = rank;
+            this.position = position;
+        }
+    }
+}
@@ -19,7 +19,7 @@ public class WordPlaceholderTest {
      * 读取document.xml文件
      */
     public static String readDocumentXml(String filePath) throws IOException {
-        return FileUtils.readFile(filePath);
+        return FileUtils.readString(filePath);
     }
 
     /**
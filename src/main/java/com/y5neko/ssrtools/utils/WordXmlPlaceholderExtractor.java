@@ -57,8 +57,8 @@ public class WordXmlPlaceholderExtractor {
             System.out.println("[清理] 启用源文件清理模式，提取后将从document.xml中删除对应段落");
         }
 
-        // 读取XML文件内容
-        String xmlContent = readFile(xmlFilePath);
+        // 读取XML文件内容，提取时只需扫描，清理时才转换为字符串
+        CharSequence xmlContent = FileUtils.readChars(xmlFilePath);
 
         // 创建输出目录
         createOutputDirectory(outputDir);
@@ -70,7 +70,6 @@ public class WordXmlPlaceholderExtractor {
         Pattern placeholderPattern = Pattern.compile(PLACEHOLDER_PATTERN);
 
         int foundCount = 0;
-        String cleanedXmlContent = xmlContent;
 
         // 用于记录需要删除的段落内容
         java.util.List<String> paragraphsToRemove = new java.util.ArrayList<>();
@@ -120,7 +119,7 @@ public class WordXmlPlaceholderExtractor {
         if (cleanSource && !paragraphsToRemove.isEmpty()) {
             System.out.println("\n[清理] 开始清理document.xml中的已提取段落...");
 
-            cleanedXmlContent = xmlContent;
+            String cleanedXmlContent = xmlContent.toString();
             int removedCount = 0;
 
             for (String paragraph : paragraphsToRemove) {
@@ -1,16 +1,95 @@
 package com.y5neko.ssrtools.utils;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
 import java.io.*;
 import java.nio.file.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.zip.*;
 import java.util.*;
 
 import static com.y5neko.ssrtools.config.GlobalConfig.DOC_TEMPLATE_PATH;
+import static com.y5neko.ssrtools.config.GlobalConfig.TEMPLATE_CACHE_MAX_MB;
+import static com.y5neko.ssrtools.config.GlobalConfig.ZIP_COMPRESSION_PROFILE;
 
 /**
  * 压缩工具类
+ * 打包时各文件条目在线程池中并行压缩到内存缓冲区，再按原顺序写入ZIP；
+ * 本身已压缩的媒体文件（png、jpeg等）以 STORED 方式直接存储
  */
 public class ZipUtils {
+    // 本身已压缩、再次deflate没有收益的文件扩展名
+    private static final Set<String> PRECOMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "png", "jpg", "jpeg", "gif", "tif", "tiff", "wdp", "jxr", "webp", "emz", "wmz",
+            "zip", "docx", "xlsx", "pptx", "mp3", "mp4"
+    ));
+
+    // 解压时的读写缓冲区大小
+    private static final int EXTRACT_BUFFER_SIZE = 64 * 1024;
+
+    // 已预压缩的模板骨架缓存，key为 源根目录绝对路径|压缩级别|文件列表，按最近使用顺序排列；访问时需持有其锁
+    private static final LinkedHashMap<String, Skeleton> SKELETON_CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static final long SKELETON_CACHE_MAX_BYTES = TEMPLATE_CACHE_MAX_MB * 1024L * 1024L;
+    private static long skeletonCacheBytes;
+
+    // 骨架缓存校验间隔，间隔内直接使用缓存，不重复检查文件状态
+    private static final long SKELETON_VALIDATE_INTERVAL_MS = 1000;
+
+    /**
+     * 压缩级别配置
+     */
+    public enum CompressionProfile {
+        /**
+         * 最快压缩，适合频繁生成报告
+         */
+        FAST(Deflater.BEST_SPEED),
+        /**
+         * 默认压缩级别，与 java.util.zip 默认行为一致
+         */
+        DEFAULT(Deflater.DEFAULT_COMPRESSION),
+        /**
+         * 最高压缩率，适合需要发送或归档的报告
+         */
+        SMALL(Deflater.BEST_COMPRESSION);
+
+        private final int level;
+
+        CompressionProfile(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * 按名称获取压缩级别配置，名称无效时返回 DEFAULT
+         * @param name 配置名称（fast / default / small，不区分大小写）
+         * @return 压缩级别配置
+         */
+        public static CompressionProfile of(String name) {
+            for (CompressionProfile profile : values()) {
+                if (profile.name().equalsIgnoreCase(name)) {
+                    return profile;
+                }
+            }
+            return DEFAULT;
+        }
+
+        /**
+         * 获取全局配置的压缩级别（-Dssrtools.zipCompression）
+         * @return 压缩级别配置
+         */
+        public static CompressionProfile configured() {
+            return of(ZIP_COMPRESSION_PROFILE);
+        }
+    }
+
     /**
      * 压缩文件或文件夹为ZIP
      * @param sourcePath 要压缩的文件/文件夹路径
@@ -23,75 +102,419 @@ public class ZipUtils {
             throw new FileNotFoundException("源路径不存在: " + sourcePath);
         }
 
-        try (ZipOutputStream zos = new ZipOutputStream(
-                Files.newOutputStream(Paths.get(outputPath)))) {
+        List<PendingEntry> entries = new ArrayList<>();
+        if (Files.isDirectory(source)) {
+            // 压缩文件夹
+            for (Path path : listFiles(source)) {
+                String entryName = source.relativize(path).toString().replace(File.separator, "/");
+                entries.add(new PendingEntry(entryName, path, null));
+            }
+        } else {
+            // 压缩单个文件
+            entries.add(new PendingEntry(source.getFileName().toString(), source, null));
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputPath)))) {
+            writeEntries(entries, CompressionProfile.configured(), out);
+        }
+    }
+
+    /**
+     * 压缩多个文件/文件夹到同一个ZIP
+     * @param sources 要压缩的路径列表
+     * @param outputPath 输出的ZIP文件路径
+     */
+    public static void zipMultiple(List<String> sources, String outputPath) throws IOException {
+        List<PendingEntry> entries = new ArrayList<>();
+        for (String sourcePath : sources) {
+            Path source = Paths.get(sourcePath);
+            if (!Files.exists(source)) {
+                throw new FileNotFoundException("源路径不存在: " + sourcePath);
+            }
 
             if (Files.isDirectory(source)) {
-                // 压缩文件夹
-                Files.walk(source)
-                        .filter(path -> !Files.isDirectory(path))
-                        .forEach(path -> {
-                            String entryName = source.relativize(path).toString()
-                                    .replace(File.separator, "/");
-                            addToZip(zos, path, entryName);
-                        });
+                for (Path path : listFiles(source)) {
+                    String entryName = source.getFileName() + "/" +
+                            source.relativize(path).toString().replace(File.separator, "/");
+                    entries.add(new PendingEntry(entryName, path, null));
+                }
             } else {
-                // 压缩单个文件
-                addToZip(zos, source, source.getFileName().toString());
+                entries.add(new PendingEntry(source.getFileName().toString(), source, null));
             }
         }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputPath)))) {
+            writeEntries(entries, CompressionProfile.configured(), out);
+        }
     }
 
     /**
-     * 添加到压缩包
-     * @param zos zip输出流
-     * @param filePath 文件路径
-     * @param entryName entry名称
+     * ZIP条目内容写入器，用于直接向压缩流写入动态生成的条目
      */
-    private static void addToZip(ZipOutputStream zos, Path filePath, String entryName) {
-        try (InputStream fis = Files.newInputStream(filePath)) {
-            ZipEntry zipEntry = new ZipEntry(entryName);
-            zos.putNextEntry(zipEntry);
+    public interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
 
-            byte[] buffer = new byte[1024];
-            int length;
-            while ((length = fis.read(buffer)) >= 0) {
-                zos.write(buffer, 0, length);
+    /**
+     * 将目录下的指定文件/子目录直接流式写入ZIP，使用全局配置的压缩级别
+     * @see #zipDirectory(Path, List, Map, CompressionProfile, OutputStream)
+     */
+    public static void zipDirectory(Path baseDir, List<String> sources, Map<String, EntryWriter> overrides,
+                                    OutputStream out) throws IOException {
+        zipDirectory(baseDir, sources, overrides, CompressionProfile.configured(), out);
+    }
+
+    /**
+     * 将目录下的指定文件/子目录直接流式写入ZIP，无需先复制到临时目录
+     * 与 overrides 中条目名相同的文件会被替换为写入器生成的内容，模板中不存在的条目追加到末尾
+     * @param baseDir 源根目录
+     * @param sources 相对于根目录的文件/子目录名列表，不存在的会被跳过
+     * @param overrides 条目名（如 word/document.xml）到内容写入器的映射
+     * @param profile 压缩级别配置
+     * @param out 输出流，调用方负责关闭
+     * @throws IOException 如果发生IO错误
+     */
+    public static void zipDirectory(Path baseDir, List<String> sources, Map<String, EntryWriter> overrides,
+                                    CompressionProfile profile, OutputStream out) throws IOException {
+        Set<String> written = new HashSet<>();
+        List<PendingEntry> entries = new ArrayList<>();
+
+        for (String sourceName : sources) {
+            Path source = baseDir.resolve(sourceName);
+            if (!Files.exists(source)) {
+                LogUtils.info(ZipUtils.class, "跳过不存在的路径: " + source);
+                continue;
+            }
+
+            List<Path> files = Files.isDirectory(source) ? listFiles(source) : Collections.singletonList(source);
+            for (Path file : files) {
+                String entryName = baseDir.relativize(file).toString().replace(File.separator, "/");
+                entries.add(new PendingEntry(entryName, file, overrides.get(entryName)));
+                written.add(entryName);
+            }
+        }
+
+        for (Map.Entry<String, EntryWriter> override : overrides.entrySet()) {
+            if (!written.contains(override.getKey())) {
+                entries.add(new PendingEntry(override.getKey(), null, override.getValue()));
             }
-            zos.closeEntry();
-        } catch (IOException e) {
-            LogUtils.error(ZipUtils.class, "添加文件到ZIP失败：" + e.getMessage());
         }
+        writeEntries(entries, profile, out);
     }
 
     /**
-     * 压缩多个文件/文件夹到同一个ZIP
-     * @param sources 要压缩的路径列表
-     * @param outputPath 输出的ZIP文件路径
+     * 将模板目录打包为ZIP，未被替换的模板文件直接使用缓存中已压缩的数据
+     * 模板目录首次打包时整体压缩一次并缓存（骨架），之后只需压缩 overrides 生成的内容；
+     * 模板文件的修改时间、大小或文件列表变化时自动重新压缩
+     * @param baseDir 模板根目录
+     * @param sources 相对于根目录的文件/子目录名列表，不存在的会被跳过
+     * @param overrides 条目名（如 word/document.xml）到内容写入器的映射
+     * @param profile 压缩级别配置
+     * @param out 输出流，调用方负责关闭
+     * @throws IOException 如果发生IO错误
      */
-    public static void zipMultiple(List<String> sources, String outputPath) throws IOException {
-        try (ZipOutputStream zos = new ZipOutputStream(
-                Files.newOutputStream(Paths.get(outputPath)))) {
+    public static void zipTemplate(Path baseDir, List<String> sources, Map<String, EntryWriter> overrides,
+                                   CompressionProfile profile, OutputStream out) throws IOException {
+        Skeleton skeleton = loadSkeleton(baseDir, sources, profile);
 
-            for (String sourcePath : sources) {
-                Path source = Paths.get(sourcePath);
-                if (!Files.exists(source)) {
-                    throw new FileNotFoundException("源路径不存在: " + sourcePath);
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
+        zos.setLevel(profile.getLevel());
+        for (CompressedEntry entry : skeleton.entries) {
+            EntryWriter writer = overrides.get(entry.name);
+            if (writer != null) {
+                writeStreamed(zos, entry.name, writer);
+            } else {
+                entry.writeTo(zos);
+            }
+        }
+        for (Map.Entry<String, EntryWriter> override : overrides.entrySet()) {
+            if (!skeleton.names.contains(override.getKey())) {
+                writeStreamed(zos, override.getKey(), override.getValue());
+            }
+        }
+        zos.finish();
+    }
+
+    /**
+     * 使指定模板目录的骨架缓存失效，模板被删除或替换后调用
+     * @param baseDir 模板根目录
+     */
+    public static void invalidateTemplate(Path baseDir) {
+        String prefix = baseDir.toAbsolutePath().normalize() + "|";
+        synchronized (SKELETON_CACHE) {
+            Iterator<Map.Entry<String, Skeleton>> it = SKELETON_CACHE.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Skeleton> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    skeletonCacheBytes -= entry.getValue().bytes;
+                    it.remove();
                 }
+            }
+        }
+    }
+
+    private static Skeleton loadSkeleton(Path baseDir, List<String> sources, CompressionProfile profile)
+            throws IOException {
+        Path root = baseDir.toAbsolutePath().normalize();
+        String key = root + "|" + profile + "|" + sources;
+        Skeleton cached;
+        synchronized (SKELETON_CACHE) {
+            cached = SKELETON_CACHE.get(key);
+        }
+        long now = System.currentTimeMillis();
+
+        if (cached != null && now - cached.validatedAt < SKELETON_VALIDATE_INTERVAL_MS) {
+            return cached;
+        }
+
+        // 先记录文件列表和状态再压缩，压缩期间发生的修改会在下次校验时被发现
+        List<PendingEntry> files = new ArrayList<>();
+        StringBuilder fingerprint = new StringBuilder();
+        for (String sourceName : sources) {
+            Path source = root.resolve(sourceName);
+            if (!Files.exists(source)) {
+                continue;
+            }
+            List<Path> paths = Files.isDirectory(source) ? listFiles(source) : Collections.singletonList(source);
+            for (Path file : paths) {
+                String entryName = root.relativize(file).toString().replace(File.separator, "/");
+                files.add(new PendingEntry(entryName, file, null));
+                fingerprint.append(entryName).append(':')
+                        .append(Files.getLastModifiedTime(file).toMillis()).append(':')
+                        .append(Files.size(file)).append('\n');
+            }
+        }
+
+        if (cached != null && cached.fingerprint.equals(fingerprint.toString())) {
+            cached.validatedAt = now;
+            return cached;
+        }
+
+        List<Future<CompressedEntry>> futures = submitCompression(files, profile);
+        List<CompressedEntry> entries = new ArrayList<>(files.size());
+        for (Future<CompressedEntry> future : futures) {
+            entries.add(awaitCompleted(future));
+        }
+        Skeleton loaded = new Skeleton(entries, fingerprint.toString(), now);
+        cacheSkeleton(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * 缓存骨架，总大小超出上限时淘汰最久未使用的骨架；单个骨架超过上限时不缓存
+     */
+    private static void cacheSkeleton(String key, Skeleton skeleton) {
+        synchronized (SKELETON_CACHE) {
+            Skeleton replaced = SKELETON_CACHE.remove(key);
+            if (replaced != null) {
+                skeletonCacheBytes -= replaced.bytes;
+            }
+            if (skeleton.bytes > SKELETON_CACHE_MAX_BYTES) {
+                return;
+            }
+            SKELETON_CACHE.put(key, skeleton);
+            skeletonCacheBytes += skeleton.bytes;
+
+            Iterator<Skeleton> it = SKELETON_CACHE.values().iterator();
+            while (skeletonCacheBytes > SKELETON_CACHE_MAX_BYTES) {
+                Skeleton eldest = it.next();
+                skeletonCacheBytes -= eldest.bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (java.util.stream.Stream<Path> walk = Files.walk(dir)) {
+            walk.filter(path -> !Files.isDirectory(path)).forEach(files::add);
+        }
+        return files;
+    }
+
+    /**
+     * 按顺序写入全部条目
+     * 文件条目先全部提交到线程池并行压缩，写入时按顺序等待结果并原样拷贝压缩数据；
+     * 写入器条目在当前线程直接流式压缩写入
+     * @param entries 待写入条目
+     * @param profile 压缩级别配置
+     * @param out 输出流，调用方负责关闭
+     * @throws IOException 如果发生IO错误
+     */
+    private static void writeEntries(List<PendingEntry> entries, CompressionProfile profile, OutputStream out)
+            throws IOException {
+        List<Future<CompressedEntry>> compressed = submitCompression(entries, profile);
 
-                if (Files.isDirectory(source)) {
-                    Files.walk(source)
-                            .filter(path -> !Files.isDirectory(path))
-                            .forEach(path -> {
-                                String entryName = source.getFileName() + "/" +
-                                        source.relativize(path).toString()
-                                                .replace(File.separator, "/");
-                                addToZip(zos, path, entryName);
-                            });
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
+        zos.setLevel(profile.getLevel());
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                PendingEntry entry = entries.get(i);
+                if (entry.writer != null) {
+                    writeStreamed(zos, entry.name, entry.writer);
                 } else {
-                    addToZip(zos, source, source.getFileName().toString());
+                    awaitCompleted(compressed.get(i)).writeTo(zos);
+                    compressed.set(i, null);
                 }
             }
+            zos.finish();
+        } finally {
+            for (Future<CompressedEntry> future : compressed) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将文件条目提交到线程池并行压缩，写入器条目对应位置为null
+     */
+    private static List<Future<CompressedEntry>> submitCompression(List<PendingEntry> entries,
+                                                                   CompressionProfile profile) {
+        List<Future<CompressedEntry>> futures = new ArrayList<>(entries.size());
+        for (PendingEntry entry : entries) {
+            futures.add(entry.writer != null ? null :
+                    ForkJoinPool.commonPool().submit(() -> compress(entry.name, entry.file, profile)));
+        }
+        return futures;
+    }
+
+    /**
+     * 在当前线程流式压缩写入单个条目
+     */
+    private static void writeStreamed(ZipArchiveOutputStream zos, String entryName, EntryWriter writer)
+            throws IOException {
+        ZipArchiveEntry zipEntry = new ZipArchiveEntry(entryName);
+        zipEntry.setMethod(ZipEntry.DEFLATED);
+        zos.putArchiveEntry(zipEntry);
+        writer.write(zos);
+        zos.closeArchiveEntry();
+    }
+
+    private static <T> T awaitCompleted(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("任务被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("处理ZIP条目失败：" + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 判断条目是否为本身已压缩的媒体文件
+     * @param entryName 条目名称
+     * @return 是否直接存储
+     */
+    public static boolean isPrecompressed(String entryName) {
+        int dot = entryName.lastIndexOf('.');
+        return dot >= 0 && PRECOMPRESSED_EXTENSIONS.contains(entryName.substring(dot + 1).toLowerCase());
+    }
+
+    /**
+     * 读取并压缩单个文件到内存
+     * @param entryName 条目名称
+     * @param file 文件路径
+     * @param profile 压缩级别配置
+     * @return 已压缩条目
+     * @throws IOException 读取失败
+     */
+    static CompressedEntry compress(String entryName, Path file, CompressionProfile profile) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        if (isPrecompressed(entryName)) {
+            return new CompressedEntry(entryName, ZipEntry.STORED, crc.getValue(), data.length, data);
+        }
+
+        Deflater deflater = new Deflater(profile.getLevel(), true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] chunk = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                buffer.write(chunk, 0, length);
+            }
+            return new CompressedEntry(entryName, ZipEntry.DEFLATED, crc.getValue(), data.length, buffer.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 待写入条目：文件或内容写入器
+     */
+    private static class PendingEntry {
+        private final String name;
+        private final Path file;
+        private final EntryWriter writer;
+
+        PendingEntry(String name, Path file, EntryWriter writer) {
+            this.name = name;
+            this.file = file;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * 模板骨架：按顺序排列的已压缩模板文件
+     */
+    private static class Skeleton {
+        private final List<CompressedEntry> entries;
+        private final Set<String> names = new HashSet<>();
+        private final String fingerprint;
+        // 已压缩数据的总字节数
+        private final long bytes;
+        private volatile long validatedAt;
+
+        Skeleton(List<CompressedEntry> entries, String fingerprint, long validatedAt) {
+            this.entries = entries;
+            long total = 0;
+            for (CompressedEntry entry : entries) {
+                names.add(entry.name);
+                total += entry.data.length;
+            }
+            this.bytes = total;
+            this.fingerprint = fingerprint;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    /**
+     * 已压缩条目，写入时直接拷贝压缩数据，无需再次压缩
+     */
+    static class CompressedEntry {
+        private final String name;
+        private final int method;
+        private final long crc;
+        private final long size;
+        private final byte[] data;
+
+        CompressedEntry(String name, int method, long crc, long size, byte[] data) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+
+        void writeTo(ZipArchiveOutputStream zos) throws IOException {
+            ZipArchiveEntry entry = new ZipArchiveEntry(name);
+            entry.setMethod(method);
+            entry.setCrc(crc);
+            entry.setSize(size);
+            entry.setCompressedSize(data.length);
+            entry.setTime(System.currentTimeMillis());
+            zos.addRawArchiveEntry(entry, new ByteArrayInputStream(data));
         }
     }
 
@@ -102,44 +525,119 @@ public class ZipUtils {
      * @throws IOException 如果发生IO错误
      */
     public static void extractZip(String zipPath, String destPath) throws IOException {
-        File destDir = new File(destPath);
-        if (!destDir.exists()) {
-            destDir.mkdirs();
-        }
+        extractZip(zipPath, destPath, entryName -> true);
+    }
+
+    /**
+     * 解压ZIP文件中符合条件的条目到指定目录
+     * 基于 ZipFile 随机读取，各条目在线程池中并行解压
+     * @param zipPath ZIP文件路径
+     * @param destPath 解压目标目录
+     * @param filter 条目名过滤条件
+     * @return 解压的文件数
+     * @throws IOException 如果发生IO错误
+     */
+    public static int extractZip(String zipPath, String destPath, Predicate<String> filter) throws IOException {
+        Path destDir = Paths.get(destPath).toAbsolutePath().normalize();
+        Files.createDirectories(destDir);
 
-        try (ZipInputStream zis = new ZipInputStream(
-                Files.newInputStream(Paths.get(zipPath)))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
+        try (ZipFile zipFile = new ZipFile(zipPath)) {
+            List<ZipEntry> entries = new ArrayList<>();
+            List<Path> targets = new ArrayList<>();
+            Set<Path> dirs = new HashSet<>();
+
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
                 String entryName = entry.getName();
-                File entryFile = new File(destDir, entryName);
+                if (!filter.test(entryName)) {
+                    continue;
+                }
 
                 // 确保解压路径不跳出目标目录（安全检查）
-                if (!entryFile.getCanonicalPath().startsWith(destDir.getCanonicalPath())) {
+                Path target = destDir.resolve(entryName).normalize();
+                if (!target.startsWith(destDir)) {
                     throw new IOException("非法的ZIP条目路径: " + entryName);
                 }
 
                 if (entry.isDirectory()) {
-                    // 创建目录
-                    entryFile.mkdirs();
+                    dirs.add(target);
                 } else {
-                    // 创建父目录
-                    entryFile.getParentFile().mkdirs();
-
-                    // 解压文件
-                    try (FileOutputStream fos = new FileOutputStream(entryFile)) {
-                        byte[] buffer = new byte[1024];
-                        int length;
-                        while ((length = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, length);
-                        }
+                    dirs.add(target.getParent());
+                    entries.add(entry);
+                    targets.add(target);
+                }
+            }
+
+            for (Path dir : dirs) {
+                Files.createDirectories(dir);
+            }
+
+            // 出错后尚未开始的任务直接跳过，正在解压的任务在下次读写前停止
+            AtomicBoolean aborted = new AtomicBoolean();
+            List<Future<Void>> futures = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                ZipEntry entry = entries.get(i);
+                Path target = targets.get(i);
+                futures.add(ForkJoinPool.commonPool().submit(() -> {
+                    if (!aborted.get()) {
+                        extractEntry(zipFile, entry, target, aborted);
                     }
+                    return null;
+                }));
+            }
+            boolean completed = false;
+            try {
+                for (Future<Void> future : futures) {
+                    awaitCompleted(future);
                 }
-                zis.closeEntry();
+                completed = true;
+            } finally {
+                if (!completed) {
+                    // 不能取消正在运行的任务，须等全部任务结束后再关闭 ZipFile 并把异常交给调用方，
+                    // 否则调用方清理目标目录时仍可能有任务在写入
+                    aborted.set(true);
+                    for (Future<Void> future : futures) {
+                        awaitQuietly(future);
+                    }
+                }
+            }
+            return entries.size();
+        }
+    }
+
+    private static void extractEntry(ZipFile zipFile, ZipEntry entry, Path target, AtomicBoolean aborted)
+            throws IOException {
+        try (InputStream in = zipFile.getInputStream(entry);
+             OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[EXTRACT_BUFFER_SIZE];
+            int length;
+            while (!aborted.get() && (length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
             }
         }
     }
 
+    /**
+     * 等待任务结束，忽略其异常；等待期间被中断时继续等待，结束后恢复中断状态
+     */
+    private static void awaitQuietly(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
   public static void main(String[] args) {
         List<String> sources = Arrays.asList(
                 MiscUtils.getAbsolutePath(DOC_TEMPLATE_PATH) + "/_rels",